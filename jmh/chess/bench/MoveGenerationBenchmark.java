@@ -0,0 +1,65 @@
+package chess.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chess.ChessMatch;
+import chess.ChessPiece;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveGenerationBenchmark {
+
+	@Param({ "P", "N", "B", "R", "Q", "K" })
+	public String type;																	// Letra da peça, como em ChessPiece.toString() (maiúscula: brancas).
+
+	private ChessMatch match;
+	private ChessPiece[] pieces;
+	private final int[] moves = new int[256];
+
+	@Setup
+	public void setUp() {
+		match = new ChessMatch();
+		Positions.play(match, "e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "g8f6", "d1e2", "d8e7");
+		List<ChessPiece> list = new ArrayList<>();
+		for (ChessPiece[] row : match.getPieces()) {
+			for (ChessPiece p : row) {
+				if (p != null && p.toString().equalsIgnoreCase(type)) {
+					list.add(p);
+				}
+			}
+		}
+		pieces = list.toArray(new ChessPiece[0]);
+	}
+
+	@Benchmark
+	public long possibleMovesMask() {														// Destinos pseudolegais de todas as peças do tipo, das duas cores.
+		long acc = 0;
+		for (ChessPiece p : pieces) {
+			acc += p.possibleMovesMask();
+		}
+		return acc;
+	}
+
+	@Benchmark
+	public int legalMoves() {																// Referência: geração completa com filtro de xeque (igual para todo type).
+		return match.legalMoves(moves);
+	}
+}
@@ -0,0 +1,62 @@
+package chess.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PerformMoveBenchmark {
+
+	private static final ChessPosition E2 = new ChessPosition('e', 2);
+	private static final ChessPosition E4 = new ChessPosition('e', 4);
+	private static final ChessPosition H5 = new ChessPosition('h', 5);
+	private static final ChessPosition F7 = new ChessPosition('f', 7);
+
+	private ChessMatch opening;
+	private ChessMatch scholarsMate;
+
+	@Setup(Level.Invocation)																// performChessMove altera a partida: cada chamada começa de uma posição nova.
+	public void setUp() {
+		opening = new ChessMatch();
+		scholarsMate = new ChessMatch();
+		Positions.play(scholarsMate, "e2e4", "e7e5", "f1c4", "b8c6", "d1h5", "g8f6");
+	}
+
+	@Benchmark
+	public ChessPiece quietMove() {														// Lance comum: validação, makeMove, testCheckMate e testStalemate sem sucesso.
+		opening.performChessMove(E2, E4);
+		return opening.getEnPassantVulnerable();
+	}
+
+	@Benchmark
+	public boolean matingMove() {														// Qxf7#: o caminho em que testCheckMate encontra o mate.
+		scholarsMate.performChessMove(H5, F7);
+		return scholarsMate.getCheckMate();
+	}
+
+	@Benchmark
+	public int shortGame() {																// Doze lances desde a posição inicial, incluindo o roque.
+		ChessMatch match = new ChessMatch();
+		Positions.play(match, "e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "g8f6", "d2d3", "f8c5", "e1g1", "e8g8", "c2c3", "d7d6");
+		return match.getTurn();
+	}
+}
@@ -0,0 +1,16 @@
+package chess.bench;
+
+import chess.ChessMatch;
+import chess.ChessPosition;
+
+final class Positions {
+
+	private Positions() {
+	}
+
+	static void play(ChessMatch match, String... moves) {									// Lances em notação de coordenadas, ex.: "e2e4".
+		for (String m : moves) {
+			match.performChessMove(new ChessPosition(m.charAt(0), m.charAt(1) - '0'), new ChessPosition(m.charAt(2), m.charAt(3) - '0'));
+		}
+	}
+}
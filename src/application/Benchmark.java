@@ -0,0 +1,168 @@
+package application;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import chess.ChessMatch;
+import chess.Perft;
+import chess.engine.ParallelSearch;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import chess.pgn.IngestReport;
+import chess.pgn.PgnIngest;
+import chess.service.MatchService;
+import chess.service.MatchState;
+import chess.tablebase.TablebaseGenerator;
+
+public class Benchmark {
+
+	// Ponto de entrada para medir e proteger o desempenho do gerador de lances.
+	// Uso: Benchmark perft [profundidade]  -> confere o perft das posições de referência com as contagens publicadas e mede nós/s
+	//      Benchmark pperft [profundidade] [threads] [hash MB] -> o mesmo, com o perft paralelo e a tabela de subárvores
+	//      Benchmark smp [ms] [max threads] -> nós/s da busca Lazy SMP com 1, 2, 4... threads, por tempo fixo
+	//      Benchmark pgn arquivo [threads] -> valida todas as partidas de um PGN em paralelo e mede partidas/s
+	//      Benchmark tb diretório KQK,KRK,KPK [threads] -> gera as tabelas de finais (e as que elas usam) e mede o tempo
+	//      Benchmark matches [partidas] [lances] [profundidade] -> partidas simultâneas no MatchService, motor contra motor
+	// Os micro-benchmarks (performChessMove, possibleMovesMask, mate) ficam no source set jmh: gradle jmh.
+
+	// Posições de referência para perft (FEN e contagens publicadas por profundidade, a partir de 0):
+	// a inicial, "Kiwipete" e as posições 3 a 6 da Chess Programming Wiki, que cobrem roque, en passant,
+	// promoções, xeques descobertos e cravadas.
+	private static final String[] PERFT_FENS = {
+		"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+		"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+		"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+		"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+		"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+		"r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"
+	};
+	private static final long[][] PERFT_COUNTS = {
+		{ 1, 20, 400, 8902, 197281, 4865609, 119060324 },
+		{ 1, 48, 2039, 97862, 4085603, 193690690 },
+		{ 1, 14, 191, 2812, 43238, 674624, 11030083 },
+		{ 1, 6, 264, 9467, 422333, 15833292 },
+		{ 1, 44, 1486, 62379, 2103487, 89941194 },
+		{ 1, 46, 2079, 89890, 3894594, 164075551 }
+	};
+
+	public static void main(String[] args) throws IOException {
+		String mode = (args.length > 0) ? args[0] : "perft";
+		if (mode.equals("perft")) {
+			int maxDepth = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+			if (!runPerft(maxDepth)) {
+				System.exit(1);
+			}
+		}
+		else if (mode.equals("pperft")) {
+			int maxDepth = (args.length > 1) ? Integer.parseInt(args[1]) : 6;
+			int threads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+			int hashMegabytes = (args.length > 3) ? Integer.parseInt(args[3]) : 256;
+			if (!runParallelPerft(maxDepth, threads, hashMegabytes)) {
+				System.exit(1);
+			}
+		}
+		else if (mode.equals("smp")) {
+			long millis = (args.length > 1) ? Long.parseLong(args[1]) : 5000;
+			int maxThreads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+			runSmp(millis, maxThreads);
+		}
+		else if (mode.equals("pgn") && args.length > 1) {
+			int threads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+			IngestReport report = PgnIngest.ingest(Paths.get(args[1]), threads);
+			System.out.printf("%s, %.0f games/s%n", report, report.getGames() * 1000.0 / Math.max(report.getTimeMillis(), 1));
+			for (String error : report.getErrors()) {
+				System.out.println("  " + error);
+			}
+		}
+		else if (mode.equals("tb") && args.length > 2) {
+			int threads = (args.length > 3) ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+			for (String material : args[2].split(",")) {
+				long start = System.nanoTime();
+				TablebaseGenerator.generate(Paths.get(args[1]), material, threads);
+				System.out.printf("%-6s %8d ms%n", material, (System.nanoTime() - start) / 1_000_000L);
+			}
+		}
+		else if (mode.equals("matches")) {
+			int matches = (args.length > 1) ? Integer.parseInt(args[1]) : 1000;
+			int plies = (args.length > 2) ? Integer.parseInt(args[2]) : 20;
+			int depth = (args.length > 3) ? Integer.parseInt(args[3]) : 2;
+			runMatches(matches, plies, depth);
+		}
+		else {
+			System.out.println("Usage: Benchmark perft [depth] | pperft [depth] [threads] [hashMB] | smp [ms] [threads] | pgn file [threads]"
+					+ " | tb dir materials [threads] | matches [count] [plies] [depth]");
+		}
+	}
+
+	private static boolean runPerft(int maxDepth) {
+		return runParallelPerft(maxDepth, 0, 0);
+	}
+
+	private static boolean runParallelPerft(int maxDepth, int threads, int hashMegabytes) {
+		boolean ok = true;
+		for (int i = 0; i < PERFT_FENS.length; i++) {
+			System.out.println(PERFT_FENS[i] + ((threads > 0) ? " (" + threads + " threads, " + hashMegabytes + " MB)" : ""));
+			for (int depth = 1; depth <= maxDepth && depth < PERFT_COUNTS[i].length; depth++) {
+				ok &= reportPerft(ChessMatch.fromFen(PERFT_FENS[i]), depth, PERFT_COUNTS[i][depth], threads, hashMegabytes);
+			}
+		}
+		return ok;
+	}
+
+	private static boolean reportPerft(ChessMatch match, int depth, long expected, int threads, int hashMegabytes) {
+		long start = System.nanoTime();
+		long nodes = (threads > 0) ? Perft.parallelPerft(match, depth, threads, hashMegabytes) : Perft.perft(match, depth);
+		long elapsed = Math.max(System.nanoTime() - start, 1);
+		boolean ok = nodes == expected;
+		System.out.printf("  perft(%d) = %d (expected %d) %s  %.1f ms, %.0f nodes/s%n", depth, nodes, expected, ok ? "OK" : "FAIL",
+				elapsed / 1e6, nodes * 1e9 / elapsed);
+		return ok;
+	}
+
+	private static void runSmp(long millis, int maxThreads) {
+		double baseline = 0;
+		for (int threads = 1; threads <= maxThreads; threads = (threads * 2 > maxThreads && threads < maxThreads) ? maxThreads : threads * 2) {
+			ParallelSearch search = new ParallelSearch(threads, new TranspositionTable(64));
+			SearchResult result = search.search(new ChessMatch(), SearchLimits.time(millis));
+			search.shutdown();
+			double nps = result.getNodes() * 1000.0 / Math.max(result.getTimeMillis(), 1);
+			if (threads == 1) {
+				baseline = nps;
+			}
+			System.out.printf("  %2d threads: depth %d, %d nodes, %.0f nodes/s (x%.2f)%n", threads, result.getDepth(), result.getNodes(), nps,
+					nps / baseline);
+		}
+	}
+
+	private static void runMatches(int matches, int plies, int depth) {				// Todos os lances de cada partida são enfileirados de uma vez:
+		long start = System.nanoTime();												// o serviço garante a ordem dentro de cada partida.
+		AtomicLong moves = new AtomicLong();
+		AtomicLong finished = new AtomicLong();
+		List<CompletableFuture<MatchState>> games = new ArrayList<>();
+		try (MatchService service = new MatchService()) {
+			for (int i = 0; i < matches; i++) {
+				CompletableFuture<MatchState> game = service.create();
+				long id = game.join().getId();
+				for (int ply = 0; ply < plies; ply++) {
+					game = service.engineMove(id, SearchLimits.depth(depth));
+					game.thenRun(moves::incrementAndGet);
+				}
+				games.add(game.handle((state, error) -> {
+					if (error != null) {
+						finished.incrementAndGet();											// A partida acabou antes (mate ou afogamento).
+					}
+					return state;
+				}).thenCompose(state -> service.close(id)));
+			}
+			CompletableFuture.allOf(games.toArray(new CompletableFuture<?>[0])).join();
+			long elapsed = Math.max(System.nanoTime() - start, 1);
+			System.out.printf("%d matches, %d engine moves (%d games over early), %.1f ms, %.0f moves/s, %d matches left open%n",
+					matches, moves.get(), finished.get(), elapsed / 1e6, moves.get() * 1e9 / elapsed, service.size());
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package application;
 
 import java.util.ArrayList;
+import java.nio.file.Paths;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Scanner;
@@ -9,6 +10,7 @@ import chess.ChessException;
 import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.ChessPosition;
+import chess.tablebase.Tablebases;
 
 public class Program {
 
@@ -17,12 +19,16 @@ public class Program {
 		Scanner sc = new Scanner (System.in);
 		ChessMatch chessMatch = new ChessMatch();
 		List<ChessPiece> captured = new ArrayList<>();
+		Tablebases tablebases = (args.length > 0) ? new Tablebases(Paths.get(args[0])) : null;		// Opcional: diretório das tabelas de finais.
 		
-	while (!chessMatch.getCheckMate()) {
+	while (!chessMatch.getCheckMate() && !chessMatch.getStalemate()) {
 		
 		try {
 		UI.clearScreen();
 		UI.printMatch(chessMatch, captured);
+		if (tablebases != null) {
+			UI.printTablebase(chessMatch, tablebases.probe(chessMatch));
+		}
 		System.out.println();
 		System.out.print("Source: ");
 		ChessPosition source = UI.readChessPosition(sc);
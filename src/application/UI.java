@@ -10,6 +10,7 @@ import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.ChessPosition;
 import chess.Color;
+import chess.tablebase.Tablebases;
 
 public class UI {
 
@@ -64,7 +65,11 @@ public class UI {
 		printCapturedPieces(captured);
 		System.out.println();
 		System.out.println("Turn : " + chessMatch.getTurn());
-		if(!chessMatch.getCheckMate()) {
+		if(chessMatch.getStalemate()) {
+			System.out.println("STALEMATE!");
+			System.out.println("Draw");
+		}
+		else if(!chessMatch.getCheckMate()) {
 		System.out.println("Waiting player: " + chessMatch.getCurrentPlayer());
 		if(chessMatch.getCheck()) {
 			System.out.println("CHECK!");
@@ -76,6 +81,19 @@ public class UI {
 		}
 	}
 	
+	public static void printTablebase(ChessMatch chessMatch, int result) {				// Veredito da tabela de finais para o jogador da vez, se a posição estiver nela.
+		if (result == Tablebases.UNKNOWN || chessMatch.getCheckMate() || chessMatch.getStalemate()) {
+			return;
+		}
+		if (result == Tablebases.DRAW) {
+			System.out.println("Tablebase: draw");
+		}
+		else {
+			int moves = (Tablebases.distance(result) + 1) / 2;
+			System.out.println("Tablebase: " + chessMatch.getCurrentPlayer() + (Tablebases.isWin(result) ? " mates in " : " is mated in ") + moves);
+		}
+	}
+	
 	
 	
 	public static void printBoard(ChessPiece[][] pieces) {
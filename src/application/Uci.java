@@ -0,0 +1,371 @@
+package application;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import chess.ChessMatch;
+import chess.Color;
+import chess.Move;
+import chess.book.PolyglotBook;
+import chess.book.PolyglotKey;
+import chess.engine.ParallelSearch;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import chess.tablebase.Tablebases;
+
+public class Uci {
+
+	// Ponto de entrada no protocolo UCI, usado por interfaces gráficas e torneios automáticos.
+	// A leitura da entrada nunca espera pela busca: "go" dispara a busca em uma thread própria, e "stop"
+	// só sinaliza as threads de busca, que param no nó seguinte e então respondem com "bestmove".
+	// Em "go infinite" e "go ponder", o "bestmove" só sai depois de "stop" (ou de "ponderhit" + tempo).
+	// Com OwnBook ligado e BookFile (livro Polyglot), "go" responde com um lance do livro, sem buscar,
+	// enquanto a posição estiver nele. TablebasePath aponta o diretório das tabelas de finais
+	// (TablebaseGenerator), consultadas pela busca.
+
+	private static final String NAME = "Chess System";
+	private static final String AUTHOR = "PedroHenrique0910";
+	private static final int DEFAULT_HASH = 16;
+	private static final int MAX_HASH = 4096;
+	private static final int MAX_THREADS = 256;
+
+	private ChessMatch match = new ChessMatch();
+	private int hashMegabytes = DEFAULT_HASH;
+	private int threads = 1;
+	private TranspositionTable table = new TranspositionTable(DEFAULT_HASH);
+	private ParallelSearch search = new ParallelSearch(1, table);
+	private boolean ownBook;
+	private String bookFile = "";
+	private PolyglotBook book;
+	private final Random bookRandom = new Random();
+	private Tablebases tablebases;
+
+	private final ExecutorService searchThread = Executors.newSingleThreadExecutor(daemon("uci-search"));
+	private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(daemon("uci-timer"));
+	private final Object lock = new Object();
+	private volatile boolean searching;
+	private Future<?> task = CompletableFuture.completedFuture(null);
+	private boolean waitingForStop;						// go infinite/ponder: segura o bestmove até stop ou ponderhit.
+	private long ponderMillis;							// Tempo da jogada a usar depois de um ponderhit.
+	private int searchId;
+
+	public static void main(String[] args) throws IOException {
+		new Uci().run(new BufferedReader(new InputStreamReader(System.in)));
+	}
+
+	void run(BufferedReader in) throws IOException {
+		String line;
+		while ((line = in.readLine()) != null) {
+			line = line.trim();
+			if (line.equals("quit")) {
+				break;
+			}
+			try {
+				handle(line);
+			}
+			catch (RuntimeException e) {
+				send("info string error: " + e.getMessage());
+			}
+		}
+		waitForSearch();
+		search.shutdown();
+	}
+
+	private void handle(String line) {
+		String[] tokens = line.split("\\s+");
+		switch (tokens[0]) {
+		case "uci":
+			send("id name " + NAME);
+			send("id author " + AUTHOR);
+			send("option name Hash type spin default " + DEFAULT_HASH + " min 1 max " + MAX_HASH);
+			send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+			send("option name Ponder type check default false");
+			send("option name OwnBook type check default false");
+			send("option name BookFile type string default <empty>");
+			send("option name TablebasePath type string default <empty>");
+			send("uciok");
+			break;
+		case "isready":
+			send("readyok");
+			break;
+		case "ucinewgame":
+			waitForSearch();
+			table.clear();
+			match = new ChessMatch();
+			break;
+		case "setoption":
+			waitForSearch();
+			setOption(tokens);
+			break;
+		case "position":
+			match = position(tokens);
+			break;
+		case "go":
+			go(tokens);
+			break;
+		case "stop":
+			stopSearch();
+			break;
+		case "ponderhit":
+			ponderHit();
+			break;
+		default:
+			if (!line.isEmpty()) {
+				send("info string unknown command: " + line);
+			}
+		}
+	}
+
+	private void setOption(String[] tokens) {									// setoption name <nome> value <valor> (o valor pode ter espaços, ex.: caminhos)
+		String name = "";
+		String value = "";
+		for (int i = 1; i < tokens.length; i++) {
+			if (tokens[i].equals("name") && i + 1 < tokens.length) {
+				name = tokens[++i];
+			}
+			else if (tokens[i].equals("value") && i + 1 < tokens.length) {
+				value = String.join(" ", Arrays.copyOfRange(tokens, i + 1, tokens.length));
+				break;
+			}
+		}
+		if (name.equalsIgnoreCase("OwnBook") || name.equalsIgnoreCase("BookFile")) {
+			if (name.equalsIgnoreCase("OwnBook")) {
+				ownBook = Boolean.parseBoolean(value);
+			}
+			else {
+				bookFile = value.equals("<empty>") ? "" : value;
+			}
+			openBook();
+			return;
+		}
+		if (name.equalsIgnoreCase("TablebasePath")) {
+			tablebases = (value.isEmpty() || value.equals("<empty>")) ? null : new Tablebases(Paths.get(value));
+			search.setTablebases(tablebases);
+			return;
+		}
+		if (name.equalsIgnoreCase("Hash")) {
+			hashMegabytes = Math.max(1, Math.min(MAX_HASH, Integer.parseInt(value)));
+			table = new TranspositionTable(hashMegabytes);
+		}
+		else if (name.equalsIgnoreCase("Threads")) {
+			threads = Math.max(1, Math.min(MAX_THREADS, Integer.parseInt(value)));
+		}
+		else {
+			return;
+		}
+		search.shutdown();
+		search = new ParallelSearch(threads, table);
+		search.setTablebases(tablebases);
+	}
+
+	private void openBook() {
+		book = null;
+		if (!ownBook || bookFile.isEmpty()) {
+			return;
+		}
+		try {
+			book = PolyglotBook.open(Paths.get(bookFile), PolyglotKey.standard());
+			send("info string book " + bookFile + " with " + book.size() + " entries");
+		}
+		catch (IOException e) {
+			send("info string book not loaded: " + e.getMessage());
+		}
+	}
+
+	private ChessMatch position(String[] tokens) {							// position startpos | fen <6 campos> [moves ...]
+		ChessMatch position;
+		int i;
+		if (tokens[1].equals("startpos")) {
+			position = new ChessMatch();
+			i = 2;
+		}
+		else if (tokens[1].equals("fen")) {
+			StringBuilder fen = new StringBuilder();
+			for (i = 2; i < tokens.length && !tokens[i].equals("moves"); i++) {
+				fen.append(tokens[i]).append(' ');
+			}
+			position = ChessMatch.fromFen(fen.toString());
+		}
+		else {
+			throw new IllegalArgumentException("expected 'startpos' or 'fen'");
+		}
+		if (i < tokens.length && tokens[i].equals("moves")) {
+			for (i++; i < tokens.length; i++) {
+				position.makeMove(parseMove(position, tokens[i]));
+			}
+		}
+		return position;
+	}
+
+	private static int parseMove(ChessMatch position, String text) {			// Notação UCI (e2e4, e7e8q), procurada entre os lances legais.
+		int move = Move.parse(position, text);
+		if (move == -1) {
+			throw new IllegalArgumentException("illegal move " + text);
+		}
+		return move;
+	}
+
+	private void go(String[] tokens) {
+		waitForSearch();
+		int depth = 0;
+		long nodes = 0;
+		long moveTime = 0;
+		long whiteTime = -1;
+		long blackTime = -1;
+		long whiteIncrement = 0;
+		long blackIncrement = 0;
+		int movesToGo = 0;
+		boolean infinite = false;
+		boolean ponder = false;
+		for (int i = 1; i < tokens.length; i++) {
+			switch (tokens[i]) {
+			case "depth": depth = Integer.parseInt(tokens[++i]); break;
+			case "nodes": nodes = Long.parseLong(tokens[++i]); break;
+			case "movetime": moveTime = Long.parseLong(tokens[++i]); break;
+			case "wtime": whiteTime = Long.parseLong(tokens[++i]); break;
+			case "btime": blackTime = Long.parseLong(tokens[++i]); break;
+			case "winc": whiteIncrement = Long.parseLong(tokens[++i]); break;
+			case "binc": blackIncrement = Long.parseLong(tokens[++i]); break;
+			case "movestogo": movesToGo = Integer.parseInt(tokens[++i]); break;
+			case "infinite": infinite = true; break;
+			case "ponder": ponder = true; break;
+			default: break;
+			}
+		}
+		if (book != null && !infinite && !ponder) {
+			int bookMove = book.probe(match, bookRandom);
+			if (bookMove != -1) {
+				send("info string book move");
+				send("bestmove " + Move.toString(bookMove));
+				return;
+			}
+		}
+		boolean white = match.getCurrentPlayer() == Color.WHITE;
+		long remaining = white ? whiteTime : blackTime;
+		long increment = white ? whiteIncrement : blackIncrement;
+		long time = moveTime;
+		if (time == 0 && remaining >= 0) {											// Uma fração do relógio mais quase todo o incremento, com margem de segurança.
+			time = remaining / ((movesToGo > 0) ? movesToGo + 1 : 30) + increment * 3 / 4;
+			time = Math.max(1, Math.min(time, remaining - 50));
+		}
+		SearchLimits limits = new SearchLimits(depth, nodes, (infinite || ponder) ? 0 : time);
+		ChessMatch position = match.copy();										// A cópia leva as chaves desde o último lance irreversível: a busca vê as repetições da partida.
+		int id;
+		synchronized (lock) {
+			waitingForStop = infinite || ponder;
+			ponderMillis = time;
+			id = ++searchId;
+		}
+		searching = true;
+		task = searchThread.submit(() -> runSearch(id, position, limits));
+	}
+
+	private void runSearch(int id, ChessMatch position, SearchLimits limits) {
+		SearchResult result;
+		try {
+			result = search.search(position, limits);
+		}
+		finally {
+			searching = false;
+		}
+		synchronized (lock) {
+			while (waitingForStop && searchId == id) {
+				try {
+					lock.wait();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+		}
+		long nps = result.getNodes() * 1000 / Math.max(result.getTimeMillis(), 1);
+		send("info depth " + result.getDepth() + " score " + score(result.getScore()) + " nodes " + result.getNodes() + " nps " + nps
+				+ " time " + result.getTimeMillis() + " hashfull " + table.hashfull()
+				+ ((result.getBestMove() != -1) ? " pv " + Move.toString(result.getBestMove()) : ""));
+		send("bestmove " + ((result.getBestMove() != -1) ? Move.toString(result.getBestMove()) : "0000"));
+	}
+
+	private void stopSearch() {
+		synchronized (lock) {
+			waitingForStop = false;
+			lock.notifyAll();
+		}
+		while (searching && !search.stop()) {										// A busca já foi disparada, mas as threads ainda não começaram.
+			Thread.yield();
+		}
+	}
+
+	private void ponderHit() {														// O adversário jogou o lance esperado: a busca segue valendo como a busca da vez.
+		int id;
+		long millis;
+		synchronized (lock) {
+			waitingForStop = false;
+			id = searchId;
+			millis = ponderMillis;
+			lock.notifyAll();
+		}
+		if (millis > 0) {
+			timer.schedule(() -> {
+				if (isCurrentSearch(id)) {
+					stopSearch();
+				}
+			}, millis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private boolean isCurrentSearch(int id) {
+		synchronized (lock) {
+			return searchId == id && searching;
+		}
+	}
+
+	private void waitForSearch() {													// Um novo comando que muda o estado para a busca anterior e espera o seu bestmove.
+		if (!task.isDone()) {
+			stopSearch();
+			try {
+				task.get();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			catch (ExecutionException e) {
+				send("info string search failed: " + e.getCause());
+			}
+		}
+	}
+
+	private static String score(int score) {
+		if (Math.abs(score) >= Search.MATE - Search.MAX_PLY) {
+			int plies = Search.MATE - Math.abs(score);
+			return "mate " + ((score > 0) ? (plies + 1) / 2 : -(plies / 2));
+		}
+		return "cp " + score;
+	}
+
+	private static void send(String message) {
+		System.out.println(message);
+	}
+
+	private static ThreadFactory daemon(String name) {
+		return r -> {
+			Thread t = new Thread(r, name);
+			t.setDaemon(true);
+			return t;
+		};
+	}
+}
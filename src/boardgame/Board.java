@@ -4,70 +4,106 @@ public class Board {
 
 	private int rows;
 	private int columns;
-	private Piece[][] pieces;
-	
+	private Piece[] pieces;						// Mailbox: a peça de cada casa, indexada por square(row, column).
+	private long occupied;						// Bitboard de ocupação: o bit 'square' está ligado quando há uma peça na casa.
+
 	public Board(int rows, int columns) {
 		if (rows < 1 || columns < 1) {
 			throw new BoardException("Error creating board: there must be at least 1 row and 1 column");
 		}
+		if (rows * columns > 64) {
+			throw new BoardException("Error creating board: there must be at most 64 squares");
+		}
 		this.rows = rows;
 		this.columns = columns;
-		pieces = new Piece[rows][columns];
+		pieces = new Piece[rows * columns];
 	}
 	public int getRows() {
 		return rows;
 	}
-	
+
 	public int getColumns() {
 		return columns;
 	}
-	
-	public Piece piece(int row, int column) {     							// Retorna a peça em uma posição específica do tabuleiro ou lança uma exceção se a posição for inválida.	
-		if (!positionExists(row, column)) {									// @return A peça na posição especificada.	
+
+	public long getOccupied() {													// Retorna o bitboard com todas as casas ocupadas do tabuleiro.
+		return occupied;
+	}
+
+	public int square(int row, int column) {									// Converte (linha, coluna) no índice da casa usado pelo mailbox e pelos bitboards.
+		return row * columns + column;
+	}
+
+	public int square(Position position) {
+		return square(position.getRow(), position.getColumn());
+	}
+
+	public Piece piece(int row, int column) {     							// Retorna a peça em uma posição específica do tabuleiro ou lança uma exceção se a posição for inválida.
+		if (!positionExists(row, column)) {									// @return A peça na posição especificada.
 			throw new BoardException("Position not on the board");
 		}
-		return pieces[row] [column];
+		return pieces[square(row, column)];
 	}
 	public Piece piece(Position position) { 								// Retorna a peça localizada na posição especificada no tabuleiro (porém através de um objeto position)
 		if (!positionExists(position)) {
 			throw new BoardException("Position not on the board");
 		}
-		return pieces[position.getRow()][position.getColumn()];
+		return pieces[square(position)];
+	}
+
+	public Piece piece(int square) {										// Acesso direto ao mailbox pelo índice da casa, sem validação (caminho rápido para geração de lances).
+		return pieces[square];
 	}
-	
+
 	public void placePiece(Piece piece, Position position) { 								// Coloca a peça na matriz do tabuleiro na posição especificada e atualiza a posição da peça.
 		if (thereIsAPiece(position)) {														// Lança uma exceção se já houver uma peça na posição especificada.
 			throw new BoardException("There is already a piece on position " + position);
 		}
-		pieces[position.getRow()][position.getColumn()] = piece;
-		piece.position = position;
+		placePiece(piece, square(position));
+	}
+
+	public void placePiece(Piece piece, int square) {										// Versão por índice de casa: atualiza o mailbox, o bitboard de ocupação e a posição da peça.
+		pieces[square] = piece;																// A peça reaproveita o seu próprio objeto Position, evitando alocações a cada lance.
+		occupied |= 1L << square;
+		piece.square = square;
+		if (piece.position == null) {
+			piece.position = new Position(square / columns, square % columns);
+		}
+		else {
+			piece.position.setValues(square / columns, square % columns);
+		}
 	}
-	
+
 	public Piece removePiece (Position position) {                                          // Remove uma peça do tabuleiro na posição especificada e a retorna.
-		if (!positionExists(position)) {													// A peça removida tem sua posição definida como null no tabuleiro.
-			throw new BoardException("Position not on the board");							// A peça removida é armazenada temporariamente na variável aux.
+		if (!positionExists(position)) {													// A peça removida fica fora do tabuleiro (square = -1).
+			throw new BoardException("Position not on the board");
 		}
-		if (piece(position) == null) {
+		return removePiece(square(position));
+	}
+
+	public Piece removePiece(int square) {
+		Piece aux = pieces[square];
+		if (aux == null) {
 			return null;
 		}
-		Piece aux = piece(position);
-		aux.position = null;
-		pieces[position.getRow()][position.getColumn()] = null;
+		aux.square = -1;
+		pieces[square] = null;
+		occupied &= ~(1L << square);
 		return aux;
 	}
-	
-	private boolean positionExists(int row, int column) {									 // Verifica se uma posição (representada por uma linha e uma coluna) está dentro dos limites válidos do tabuleiro.	
+
+	private boolean positionExists(int row, int column) {									 // Verifica se uma posição (representada por uma linha e uma coluna) está dentro dos limites válidos do tabuleiro.
 		return	row >= 0 && row < rows && column >=0 && column < columns;					// Return true se a posição estiver dentro dos limites do tabuleiro, caso contrário, false.
 	}
-		
+
 	public boolean positionExists(Position position) { 										// Este método adapta a lógica do método positionExists para aceitar um objeto Position.
-		return positionExists(position.getRow(), position.getColumn());						// Este método é uma sobrecarga do método anterior	
+		return positionExists(position.getRow(), position.getColumn());						// Este método é uma sobrecarga do método anterior
 	}
-	
+
 	public boolean thereIsAPiece(Position position) {										// Verifica se existe uma peça (objeto Piece) em uma posição específica do tabuleiro.
 		if (!positionExists(position)) {													// Retorna true se houver uma peça na posição especificada ou false se a posição estiver vazia (sem peça).
 			throw new BoardException("Position not on the board");
 		}
-		return piece(position) != null;
+		return (occupied & (1L << square(position))) != 0;
 	}
 }
@@ -3,6 +3,7 @@ package boardgame;
 public abstract  class Piece {
 	
 	protected Position position;
+	int square = -1;				// Índice da casa ocupada no tabuleiro (mantido pelo Board), ou -1 quando a peça está fora dele.
 	private Board board;
 	
 	public Piece(Board board) {
@@ -10,27 +11,44 @@ public abstract  class Piece {
 		position = null;
 	}
 
+	public int getSquare() {
+		return square;
+	}
+
 	protected Board getBoard() { // Este método permite que as subclasses acessem o tabuleiro ao qual a peça está associada.
 		return board;
 	}
 
-	public abstract boolean[][] possibleMoves(); /* esse método serve como um contrato que exige que todas as subclasses de Piece forneçam sua 
-													própria lógica para determinar as jogadas possíveis daquela peça específica. */
+	public abstract long possibleMovesMask();		/* esse método serve como um contrato que exige que todas as subclasses de Piece forneçam sua 
+													própria lógica para determinar as jogadas possíveis daquela peça específica.
+													Retorna um bitboard com as casas de destino (bit 'square' ligado), sem alocar nada. */
+
+	public int possibleMoves(int[] moves, int count) {		// Escreve os lances no buffer fornecido a partir do índice 'count', empacotados como origem | (destino << 6).
+		long targets = possibleMovesMask();					// Retorna o novo total de lances no buffer. Nenhum objeto é alocado.
+		while (targets != 0) {
+			moves[count++] = square | (Long.numberOfTrailingZeros(targets) << 6);
+			targets &= targets - 1;
+		}
+		return count;
+	}
+
+	public boolean[][] possibleMoves() {					// Adaptador para a interface (UI): converte o bitboard de destinos em uma matriz lógica.
+		boolean[][] mat = new boolean[board.getRows()][board.getColumns()];
+		long targets = possibleMovesMask();
+		while (targets != 0) {
+			int target = Long.numberOfTrailingZeros(targets);
+			mat[target / board.getColumns()][target % board.getColumns()] = true;
+			targets &= targets - 1;
+		}
+		return mat;
+	}
 	
 	public boolean possibleMove(Position position) {
-		return possibleMoves()[position.getRow()][position.getColumn()]; 	// Verifica se a peça pode fazer um movimento válido para a posição especificada.
-	}																		// Este método usa a matriz lógica retornada pelo método possibleMoves() para determinar se a peça pode se mover para a posição especificada.
-																			// return True se o movimento é válido, caso contrário, False.
+		return (possibleMovesMask() & (1L << board.square(position))) != 0; 	// Verifica se a peça pode fazer um movimento válido para a posição especificada.
+	}																			// Testa o bit da casa de destino no bitboard retornado por possibleMovesMask().
+																				// return True se o movimento é válido, caso contrário, False.
 	
 	public boolean isThereAnyPossibleMove() {
-		boolean [][] mat = possibleMoves();
-		for(int i = 0; i<mat.length; i++) {					// Verifica se há pelo menos um movimento possível para a peça no tabuleiro.
-			for (int j = 0; j<mat.length; j++) {			// O método percorre a matriz lógica de possíveis movimentos retornada pelo método possibleMoves().
-					if (mat[i][j]) {						// Se encontrar pelo menos um movimento possível, retorna true, indicando que a peça pode se mover.
-						return true;						// Caso contrário, retorna false, indicando que a peça não tem movimentos disponíveis.
-					}
-			}	
-		}
-		return false;
+		return possibleMovesMask() != 0;					// Verifica se há pelo menos um movimento possível para a peça no tabuleiro.
 	}
 }
@@ -0,0 +1,192 @@
+package chess;
+
+public final class Attacks {
+
+	// Tabelas de ataque pré-calculadas na inicialização da classe.
+	// As casas seguem o índice do Board: square = row * 8 + column, com a linha 0 sendo a fileira 8 (a8 = 0, h1 = 63).
+
+	private static final long[] KNIGHT = new long[64];
+	private static final long[] KING = new long[64];
+	private static final long[][] PAWN = new long[2][64];		// Indexado por Color.ordinal() e pela casa do peão.
+
+	// Magic bitboards para as peças deslizantes: ataque = TABLE[offset + ((ocupação & mask) * magic) >>> shift].
+	// As magics abaixo foram encontradas por busca aleatória (números esparsos) para este mapeamento de casas;
+	// com elas a inicialização só precisa preencher as tabelas.
+	private static final long[] ROOK_MAGIC = {
+		0x008000908064C000L, 0x0040200040001000L, 0x0180100080A0010AL, 0x8880041000800800L,
+		0x1200100201200804L, 0x0200020004011008L, 0x2180010000800600L, 0x0200005088210204L,
+		0x0400800040008021L, 0x0400400020005000L, 0x8240801000200080L, 0x8611001004200900L,
+		0x008180800C001800L, 0x0100800200800400L, 0x0A02000102000408L, 0x8020802300104280L,
+		0x0080004000402000L, 0xE010104000402000L, 0x0800808010002000L, 0xA280210008100100L,
+		0x0001818014000800L, 0xA002010100080400L, 0x0080240001020870L, 0x0001020004048845L,
+		0x0081826280004004L, 0x2020810900284000L, 0x0200100080802000L, 0x0200080080100080L,
+		0x8083080100100500L, 0x4406000901000400L, 0x0005020080800100L, 0x0090204200008114L,
+		0x0010400094800420L, 0x0900804000802002L, 0x0201001841002000L, 0x4100080080801000L,
+		0x4540040080800800L, 0x0002001004040020L, 0x0281195814001002L, 0x1240800040800100L,
+		0x0880042000524004L, 0x02C080410206002CL, 0x0801200241050010L, 0x8400080010008080L,
+		0x0008000500090010L, 0x0082009084020008L, 0x4012000108020004L, 0x9000104D08860004L,
+		0x2004204114800100L, 0x0148802112400300L, 0x0202842000100880L, 0x001B080080900080L,
+		0x001A002008100600L, 0x0004008004020080L, 0x5181000600040300L, 0x0000044401128A00L,
+		0x8044110480002441L, 0x2008110084402202L, 0x90806005090010C1L, 0x000420310A004A42L,
+		0x0023001004020801L, 0x0882001008040102L, 0x000230088118020CL, 0x0000019025040042L
+	};
+	private static final long[] BISHOP_MAGIC = {
+		0x0045010808008680L, 0x2002080204004898L, 0x0210009A10400006L, 0x0824050200810200L,
+		0x0006061105004090L, 0x00010108C0000000L, 0x0814040282104004L, 0x0012012201106800L,
+		0x10823014100C1040L, 0x0080C2088802808CL, 0x0281108410404000L, 0x0101212041826200L,
+		0x0020141028221058L, 0x2201020202200202L, 0x000082A801482000L, 0x0000008401411044L,
+		0x0007103014300404L, 0x0002091110010100L, 0x42140012040C0808L, 0x0800808802004020L,
+		0x90C4004210140000L, 0x0800200900A01000L, 0x00D0400201108810L, 0x80820183814412A0L,
+		0x00A01008202202B4L, 0x01C2021A09500402L, 0x0084440208042400L, 0x800400400C090100L,
+		0xBA10040010802100L, 0xD182009006005000L, 0x5011021001009004L, 0x0020420200510400L,
+		0x0292104000468800L, 0x00043009091C0500L, 0x0280441000020025L, 0x0042820080080080L,
+		0x0440101010010040L, 0x1000900100808080L, 0x0108108120089800L, 0x0044010200012682L,
+		0xC002500420900400L, 0x0040482210710800L, 0x0002060024000200L, 0x0281020A44000800L,
+		0xA0021200A4000200L, 0x0001301000840840L, 0x2868500108444220L, 0x0004111041000200L,
+		0x8044020842080200L, 0x0000220104210200L, 0x0000021201044000L, 0x0000280884040028L,
+		0x4012114010858003L, 0x0000081004082B88L, 0x3892700508208002L, 0x00220A041B060400L,
+		0x0812020284014881L, 0x010434A282103100L, 0x0490400824020800L, 0x4A20002C00208800L,
+		0x000000A011020200L, 0x4002940A02482202L, 0x5100100202140406L, 0x02102000840540C1L
+	};
+	private static final long[] ROOK_MASK = new long[64];
+	private static final int[] ROOK_SHIFT = new int[64];
+	private static final int[] ROOK_OFFSET = new int[64];
+	private static final long[] BISHOP_MASK = new long[64];
+	private static final int[] BISHOP_SHIFT = new int[64];
+	private static final int[] BISHOP_OFFSET = new int[64];
+	private static final long[] ROOK_TABLE;
+	private static final long[] BISHOP_TABLE;
+
+	private static final long[][] BETWEEN = new long[64][64];	// Casas estritamente entre duas casas alinhadas (0 se não estiverem alinhadas).
+	private static final long[][] LINE = new long[64][64];		// Linha inteira (de borda a borda) que passa por duas casas alinhadas.
+
+	private static final int[][] ROOK_DIRECTIONS = { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 } };
+	private static final int[][] BISHOP_DIRECTIONS = { { -1, -1 }, { -1, 1 }, { 1, -1 }, { 1, 1 } };
+	private static final int[][] KNIGHT_OFFSETS = { { -1, -2 }, { -2, -1 }, { -2, 1 }, { -1, 2 }, { 1, 2 }, { 2, 1 }, { 2, -1 }, { 1, -2 } };
+	private static final int[][] KING_OFFSETS = { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 }, { -1, -1 }, { -1, 1 }, { 1, -1 }, { 1, 1 } };
+
+	static {
+		for (int sq = 0; sq < 64; sq++) {
+			KNIGHT[sq] = leaperAttacks(sq, KNIGHT_OFFSETS);
+			KING[sq] = leaperAttacks(sq, KING_OFFSETS);
+			PAWN[Color.WHITE.ordinal()][sq] = leaperAttacks(sq, new int[][] { { -1, -1 }, { -1, 1 } });
+			PAWN[Color.BLACK.ordinal()][sq] = leaperAttacks(sq, new int[][] { { 1, -1 }, { 1, 1 } });
+		}
+		ROOK_TABLE = initMagics(ROOK_DIRECTIONS, ROOK_MASK, ROOK_MAGIC, ROOK_SHIFT, ROOK_OFFSET);
+		BISHOP_TABLE = initMagics(BISHOP_DIRECTIONS, BISHOP_MASK, BISHOP_MAGIC, BISHOP_SHIFT, BISHOP_OFFSET);
+		for (int a = 0; a < 64; a++) {
+			for (int b = 0; b < 64; b++) {
+				long bitA = 1L << a;
+				long bitB = 1L << b;
+				if (a != b && (rook(a, 0L) & bitB) != 0) {
+					BETWEEN[a][b] = rook(a, bitB) & rook(b, bitA);
+					LINE[a][b] = (rook(a, 0L) & rook(b, 0L)) | bitA | bitB;
+				}
+				else if (a != b && (bishop(a, 0L) & bitB) != 0) {
+					BETWEEN[a][b] = bishop(a, bitB) & bishop(b, bitA);
+					LINE[a][b] = (bishop(a, 0L) & bishop(b, 0L)) | bitA | bitB;
+				}
+			}
+		}
+	}
+
+	private Attacks() {
+	}
+
+	public static long knight(int square) {
+		return KNIGHT[square];
+	}
+
+	public static long king(int square) {
+		return KING[square];
+	}
+
+	public static long pawn(Color color, int square) {			// Casas atacadas (capturas diagonais) por um peão da cor informada.
+		return PAWN[color.ordinal()][square];
+	}
+
+	public static long rook(int square, long occupied) {
+		int index = (int) (((occupied & ROOK_MASK[square]) * ROOK_MAGIC[square]) >>> ROOK_SHIFT[square]);
+		return ROOK_TABLE[ROOK_OFFSET[square] + index];
+	}
+
+	public static long bishop(int square, long occupied) {
+		int index = (int) (((occupied & BISHOP_MASK[square]) * BISHOP_MAGIC[square]) >>> BISHOP_SHIFT[square]);
+		return BISHOP_TABLE[BISHOP_OFFSET[square] + index];
+	}
+
+	public static long queen(int square, long occupied) {
+		return rook(square, occupied) | bishop(square, occupied);
+	}
+
+	public static long between(int a, int b) {
+		return BETWEEN[a][b];
+	}
+
+	public static long line(int a, int b) {
+		return LINE[a][b];
+	}
+
+	private static long leaperAttacks(int square, int[][] offsets) {
+		long attacks = 0L;
+		for (int[] o : offsets) {
+			int row = square / 8 + o[0];
+			int column = square % 8 + o[1];
+			if (row >= 0 && row < 8 && column >= 0 && column < 8) {
+				attacks |= 1L << (row * 8 + column);
+			}
+		}
+		return attacks;
+	}
+
+	private static long slidingAttacks(int square, long occupied, int[][] directions) {	// Caminha raio a raio até a primeira peça (inclusive). Usado só na inicialização.
+		long attacks = 0L;
+		for (int[] d : directions) {
+			int row = square / 8 + d[0];
+			int column = square % 8 + d[1];
+			while (row >= 0 && row < 8 && column >= 0 && column < 8) {
+				long bit = 1L << (row * 8 + column);
+				attacks |= bit;
+				if ((occupied & bit) != 0) {
+					break;
+				}
+				row += d[0];
+				column += d[1];
+			}
+		}
+		return attacks;
+	}
+
+	private static long relevantMask(int square, int[][] directions) {				// Casas cuja ocupação influencia o ataque: o raio sem a última casa da borda.
+		long mask = 0L;
+		for (int[] d : directions) {
+			int row = square / 8 + d[0];
+			int column = square % 8 + d[1];
+			while (row + d[0] >= 0 && row + d[0] < 8 && column + d[1] >= 0 && column + d[1] < 8) {
+				mask |= 1L << (row * 8 + column);
+				row += d[0];
+				column += d[1];
+			}
+		}
+		return mask;
+	}
+
+	private static long[] initMagics(int[][] directions, long[] masks, long[] magics, int[] shifts, int[] offsets) {
+		int size = 0;
+		for (int sq = 0; sq < 64; sq++) {
+			masks[sq] = relevantMask(sq, directions);
+			offsets[sq] = size;
+			size += 1 << Long.bitCount(masks[sq]);
+		}
+		long[] table = new long[size];
+		for (int sq = 0; sq < 64; sq++) {
+			shifts[sq] = 64 - Long.bitCount(masks[sq]);
+			long subset = 0L;
+			do {																	// Enumera todos os subconjuntos da máscara (truque de Carry-Rippler).
+				table[offsets[sq] + (int) ((subset * magics[sq]) >>> shifts[sq])] = slidingAttacks(sq, subset, directions);
+				subset = (subset - masks[sq]) & masks[sq];
+			} while (subset != 0);
+		}
+		return table;
+	}
+}
@@ -0,0 +1,121 @@
+package chess;
+
+import boardgame.Board;
+import boardgame.Piece;
+
+public class ChessBoard extends Board {
+
+	private long[] bitboards = new long[12];			// Um bitboard por cor e tipo de peça, indexado por index(color, type).
+	private long[] colorOccupancy = new long[2];		// Casas ocupadas por cada cor, indexadas por color.ordinal().
+	private long key;									// Parte do hash Zobrist referente às peças, atualizada a cada peça colocada ou removida.
+	private long pawnKey;								// Hash só dos peões e reis: identifica a estrutura de peões (com a posição dos reis) no cache da avaliação.
+	private int middlegameScore;						// Soma de PieceSquareTables (brancas menos pretas), atualizada como o hash.
+	private int endgameScore;
+	private int phase;									// Fase da partida pelas peças em jogo (ver PieceSquareTables.MAX_PHASE).
+	private PieceListener listener;						// Opcional: avisado de cada peça colocada ou removida.
+
+	public ChessBoard() {
+		super(8, 8);
+	}
+
+	public static int index(Color color, PieceType type) {			// Índice do bitboard de uma combinação cor/tipo (0 a 11).
+		return color.ordinal() * 6 + type.ordinal();
+	}
+
+	public long pieces(Color color, PieceType type) {
+		return bitboards[index(color, type)];
+	}
+
+	public long pieces(Color color) {
+		return colorOccupancy[color.ordinal()];
+	}
+
+	public long getKey() {
+		return key;
+	}
+
+	public void setPieceListener(PieceListener listener) {
+		this.listener = listener;
+	}
+
+	public long getPawnKey() {
+		return pawnKey;
+	}
+
+	public int getMiddlegameScore() {
+		return middlegameScore;
+	}
+
+	public int getEndgameScore() {
+		return endgameScore;
+	}
+
+	public int getPhase() {
+		return phase;
+	}
+
+	public boolean isSquareAttacked(int square, Color by) {				// Verifica se a casa é atacada por alguma peça da cor 'by', partindo da própria casa:
+		long occupied = getOccupied();									// offsets de cavalo, rei e peão, mais o primeiro bloqueador de cada raio (via magic bitboards).
+		Color other = (by == Color.WHITE) ? Color.BLACK : Color.WHITE;
+		if ((Attacks.knight(square) & pieces(by, PieceType.KNIGHT)) != 0
+				|| (Attacks.pawn(other, square) & pieces(by, PieceType.PAWN)) != 0
+				|| (Attacks.king(square) & pieces(by, PieceType.KING)) != 0) {
+			return true;
+		}
+		long queens = pieces(by, PieceType.QUEEN);
+		return (Attacks.bishop(square, occupied) & (pieces(by, PieceType.BISHOP) | queens)) != 0
+				|| (Attacks.rook(square, occupied) & (pieces(by, PieceType.ROOK) | queens)) != 0;
+	}
+
+	public long attackers(int square, Color by, long occupied) {			// Bitboard das peças da cor 'by' que atacam a casa, considerando a ocupação informada
+		Color other = (by == Color.WHITE) ? Color.BLACK : Color.WHITE;		// (permite simular a casa de origem já vazia, como no lance do rei ou no en passant).
+		long queens = pieces(by, PieceType.QUEEN);
+		return (Attacks.knight(square) & pieces(by, PieceType.KNIGHT))
+				| (Attacks.pawn(other, square) & pieces(by, PieceType.PAWN))
+				| (Attacks.king(square) & pieces(by, PieceType.KING))
+				| (Attacks.bishop(square, occupied) & (pieces(by, PieceType.BISHOP) | queens))
+				| (Attacks.rook(square, occupied) & (pieces(by, PieceType.ROOK) | queens));
+	}
+
+	@Override
+	public void placePiece(Piece piece, int square) {				// Além do mailbox e da ocupação geral, mantém os bitboards por cor e por tipo de peça.
+		super.placePiece(piece, square);
+		ChessPiece p = (ChessPiece) piece;
+		long bit = 1L << square;
+		int index = index(p.getColor(), p.getType());
+		bitboards[index] |= bit;
+		colorOccupancy[p.getColor().ordinal()] |= bit;
+		key ^= Zobrist.piece(index, square);
+		if (p.getType() == PieceType.PAWN || p.getType() == PieceType.KING) {
+			pawnKey ^= Zobrist.piece(index, square);
+		}
+		middlegameScore += PieceSquareTables.middlegame(index, square);
+		endgameScore += PieceSquareTables.endgame(index, square);
+		phase += PieceSquareTables.phase(p.getType());
+		if (listener != null) {
+			listener.piecePlaced(index, square);
+		}
+	}
+
+	@Override
+	public Piece removePiece(int square) {
+		ChessPiece p = (ChessPiece) super.removePiece(square);
+		if (p != null) {
+			long bit = ~(1L << square);
+			int index = index(p.getColor(), p.getType());
+			bitboards[index] &= bit;
+			colorOccupancy[p.getColor().ordinal()] &= bit;
+			key ^= Zobrist.piece(index, square);
+			if (p.getType() == PieceType.PAWN || p.getType() == PieceType.KING) {
+				pawnKey ^= Zobrist.piece(index, square);
+			}
+			middlegameScore -= PieceSquareTables.middlegame(index, square);
+			endgameScore -= PieceSquareTables.endgame(index, square);
+			phase -= PieceSquareTables.phase(p.getType());
+			if (listener != null) {
+				listener.pieceRemoved(index, square);
+			}
+		}
+		return p;
+	}
+}
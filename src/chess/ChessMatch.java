@@ -1,11 +1,7 @@
 package chess;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Arrays;
 
-import boardgame.Board;
-import boardgame.Piece;
 import boardgame.Position;
 import chess.pieces.Bishop;
 import chess.pieces.King;
@@ -18,21 +14,190 @@ public class ChessMatch {
 
 	private int turn;
 	private Color currentPlayer;
-	private Board board;
+	private ChessBoard board;
 	private boolean check;
 	private boolean checkMate;
+	private boolean stalemate;
+	private boolean winnerToMove;				// Depois do mate, currentPlayer mostra o vencedor (ver showWinner()); a posição continua com o perdedor a jogar.
 	private ChessPiece enPassantVulnerable;
+	private int enPassantColumn;
 	private ChessPiece promoted;
+	private long stateKey;						// Parte do hash Zobrist que não depende das peças: direitos de roque, en passant e lado a jogar.
+	private int halfmoveClock;					// Lances desde a última captura ou lance de peão (regra dos 50 lances e repetição).
 	
-	private List<Piece> piecesOnTheBoard = new ArrayList<>();
-	private List<Piece> capturedPieces = new ArrayList<>();
+	private static final String FEN_PIECES = "pnbrqk";		// Letras do FEN por PieceType.ordinal() (maiúsculas para as brancas).
+	
+	private PieceRegistry piecesOnTheBoard = new PieceRegistry();
+	private ChessPiece[] capturedPieces = new ChessPiece[32];		// Pilha de peças capturadas: o desfazer sempre devolve a última.
+	private int capturedCount;
+	private int[] moveBuffer = new int[256];			// Buffer reaproveitado pelo gerador de lances legais (nenhuma posição legal passa de 218 lances).
+	private int[] exchangeBuffer = new int[32];			// Buffer de trabalho de staticExchange(int).
+	
+	// Pilha de desfazer de makeMove(int)/undoMove(), indexada pelo número de lances feitos (ply).
+	private int ply;
+	private int[] undoMove = new int[256];
+	private ChessPiece[] undoCaptured = new ChessPiece[256];
+	private ChessPiece[] undoPromotedPawn = new ChessPiece[256];
+	private ChessPiece[] undoEnPassantVulnerable = new ChessPiece[256];
+	private int[] undoEnPassantColumn = new int[256];
+	private boolean[] undoCheck = new boolean[256];
+	private long[] undoStateKey = new long[256];
+	private long[] undoPositionKey = new long[256];
+	private int[] undoHalfmoveClock = new int[256];
+	private long[] earlierKeys = new long[0];		// Chaves das posições anteriores à pilha (a mais antiga primeiro), herdadas por copy() até o último lance irreversível.
 
 	
 	public ChessMatch() {                    //Construtor da classe ChessMatch. Inicializa uma nova partida de xadrez com um tabuleiro de 8x8 casas e configura as peças no início da partida
-	board = new Board (8, 8);
+	board = new ChessBoard();
 	turn = 1;
 	currentPlayer = Color.WHITE;
 	initialSetup();
+	stateKey = Zobrist.castling(castlingRights());
+	}
+	
+	private ChessMatch(ChessMatch other) {			// Construtor de cópia usado por copy(): mesma posição, sem lances para desfazer,
+													// mas com as chaves das posições que ainda contam para isRepetition().
+		board = new ChessBoard();
+		turn = other.turn;
+		currentPlayer = other.currentPlayer;
+		check = other.check;
+		checkMate = other.checkMate;
+		stalemate = other.stalemate;
+		winnerToMove = other.winnerToMove;
+		for (int square = 0; square < 64; square++) {
+			ChessPiece p = (ChessPiece) other.board.piece(square);
+			if (p != null) {
+				ChessPiece copy = newPiece(p.getType(), p.getColor());
+				for (int i = 0; i < p.getMoveCount(); i++) {
+					copy.increaseMoveCount();
+				}
+				board.placePiece(copy, square);
+				piecesOnTheBoard.add(copy);
+				if (p == other.enPassantVulnerable) {
+					enPassantVulnerable = copy;
+				}
+				if (p == other.promoted) {
+					promoted = copy;
+				}
+			}
+		}
+		enPassantColumn = other.enPassantColumn;
+		stateKey = other.stateKey;
+		halfmoveClock = other.halfmoveClock;
+		int count = Math.min(halfmoveClock, other.ply + other.earlierKeys.length);
+		earlierKeys = new long[count];
+		for (int i = 1; i <= count; i++) {
+			earlierKeys[count - i] = other.previousKey(i);
+		}
+	}
+	
+	private ChessMatch(String fen) {				// Construtor usado por fromFen(): coloca as peças direto no tabuleiro, sem reproduzir lances.
+		String[] fields = fen.trim().split("\\s+");
+		if (fields.length < 4) {
+			throw new ChessException("Invalid FEN: " + fen);
+		}
+		if (!fields[1].equals("w") && !fields[1].equals("b")) {
+			throw new ChessException("Invalid FEN side to move: " + fields[1]);
+		}
+		String castling = fields[2];
+		if (!castling.matches("-|K?Q?k?q?")) {
+			throw new ChessException("Invalid FEN castling rights: " + castling);
+		}
+		if (!fields[3].matches("-|[a-h][36]")) {
+			throw new ChessException("Invalid FEN en passant square: " + fields[3]);
+		}
+		board = new ChessBoard();
+		String[] ranks = fields[0].split("/");
+		if (ranks.length != 8) {
+			throw new ChessException("Invalid FEN board: " + fields[0]);
+		}
+		for (int row = 0; row < 8; row++) {
+			int column = 0;
+			for (char c : ranks[row].toCharArray()) {
+				if (Character.isDigit(c)) {
+					column += c - '0';
+					continue;
+				}
+				if (column > 7) {
+					throw new ChessException("Invalid FEN rank: " + ranks[row]);
+				}
+				ChessPiece piece = newPiece(fenPieceType(c), Character.isUpperCase(c) ? Color.WHITE : Color.BLACK);
+				int startRow = (piece.getColor() == Color.WHITE) ? 6 : 1;
+				if (piece.getType() == PieceType.PAWN && row != startRow) {		// O avanço duplo do peão depende de getMoveCount() == 0.
+					piece.increaseMoveCount();
+				}
+				if ((piece.getType() == PieceType.KING || piece.getType() == PieceType.ROOK) && !mayCastle(piece, row * 8 + column, castling)) {
+					piece.increaseMoveCount();									// Roque: só o rei e as torres nas casas iniciais e com o direito no FEN ficam com getMoveCount() == 0.
+				}
+				board.placePiece(piece, row * 8 + column);
+				piecesOnTheBoard.add(piece);
+				column++;
+			}
+			if (column != 8) {
+				throw new ChessException("Invalid FEN rank: " + ranks[row]);
+			}
+		}
+		if (piecesOnTheBoard.king(Color.WHITE) == null || piecesOnTheBoard.king(Color.BLACK) == null) {
+			throw new ChessException("FEN position needs both kings");
+		}
+		
+		currentPlayer = fields[1].equals("b") ? Color.BLACK : Color.WHITE;
+		halfmoveClock = (fields.length > 4) ? fenCounter(fields[4]) : 0;
+		int fullmove = (fields.length > 5) ? Math.max(1, fenCounter(fields[5])) : 1;
+		turn = 2 * fullmove - ((currentPlayer == Color.WHITE) ? 1 : 0);
+		stateKey = Zobrist.castling(castlingRights()) ^ ((currentPlayer == Color.BLACK) ? Zobrist.side() : 0L);
+		if (!fields[3].equals("-")) {												// O peão vulnerável está à frente da casa de en passant.
+			int target = (8 - (fields[3].charAt(1) - '0')) * 8 + (fields[3].charAt(0) - 'a');
+			ChessPiece pawn = (ChessPiece) board.piece(target + ((currentPlayer == Color.WHITE) ? 8 : -8));
+			if (pawn != null && pawn.getType() == PieceType.PAWN && pawn.getColor() != currentPlayer) {
+				setEnPassantVulnerable(pawn);
+			}
+		}
+		check = testCheck(currentPlayer);
+		checkMate = testCheckMate(currentPlayer);
+		stalemate = testStalemate(currentPlayer);
+	}
+	
+	public static ChessMatch fromFen(String fen) {		// Partida a partir de uma posição em FEN (Forsyth-Edwards), com roque, en passant e contadores de lances.
+		return new ChessMatch(fen);
+	}
+	
+	public String toFen() {
+		StringBuilder sb = new StringBuilder();
+		for (int row = 0; row < 8; row++) {
+			int empty = 0;
+			for (int column = 0; column < 8; column++) {
+				ChessPiece p = (ChessPiece) board.piece(row * 8 + column);
+				if (p == null) {
+					empty++;
+					continue;
+				}
+				if (empty > 0) {
+					sb.append(empty);
+					empty = 0;
+				}
+				char c = FEN_PIECES.charAt(p.getType().ordinal());
+				sb.append((p.getColor() == Color.WHITE) ? Character.toUpperCase(c) : c);
+			}
+			if (empty > 0) {
+				sb.append(empty);
+			}
+			if (row < 7) {
+				sb.append('/');
+			}
+		}
+		Color toMove = winnerToMove ? opponent(currentPlayer) : currentPlayer;		// O lado que realmente joga, mesmo depois do mate.
+		sb.append((toMove == Color.WHITE) ? " w " : " b ");
+		int rights = castlingRights();
+		sb.append((rights == 0) ? "-" : ((rights & 1) != 0 ? "K" : "") + ((rights & 2) != 0 ? "Q" : "") + ((rights & 4) != 0 ? "k" : "") + ((rights & 8) != 0 ? "q" : ""));
+		int enPassant = enPassantSquare(toMove);
+		sb.append(' ').append((enPassant < 0) ? "-" : Move.squareName(enPassant));
+		sb.append(' ').append(halfmoveClock).append(' ').append((turn + (winnerToMove ? 2 : 1)) / 2);
+		return sb.toString();
+	}
+	
+	public ChessMatch copy() {						// Cópia independente da partida (tabuleiro e peças próprios), ex.: uma por thread de busca.
+		return new ChessMatch(this);
 	}
 	
 	public int getTurn() {		
@@ -51,6 +216,10 @@ public class ChessMatch {
 		return checkMate;
 	}
 	
+	public boolean getStalemate() {
+		return stalemate;
+	}
+	
 	public ChessPiece getEnPassantVulnerable() {
 		return enPassantVulnerable;
 	}
@@ -59,6 +228,85 @@ public class ChessMatch {
 		return promoted;
 	}
 	
+	public long getPositionKey() {			// Hash Zobrist de 64 bits da posição atual, mantido incrementalmente a cada lance (custo O(1)).
+		return board.getKey() ^ stateKey;
+	}
+	
+	public long getCanonicalKey() {			// Como getPositionKey(), mas com a coluna do en passant só se a captura for possível (getEnPassantSquare() >= 0):
+		long key = getPositionKey();		// a mesma posição alcançada por ordens de lances diferentes (1.d4 Nf6 2.c4 e 1.c4 Nf6 2.d4) tem a mesma chave.
+		if (enPassantVulnerable != null && getEnPassantSquare() < 0) {
+			key ^= Zobrist.enPassant(enPassantColumn);
+		}
+		return key;
+	}
+	
+	public int getHalfmoveClock() {
+		return halfmoveClock;
+	}
+	
+	public void setPieceListener(PieceListener listener) {					// Registra quem acompanha as mudanças de peças do tabuleiro (null remove). Não passa para copy().
+		board.setPieceListener(listener);
+	}
+	
+	public long getPawnKey() {												// Hash Zobrist só dos peões e dos reis, mantido incrementalmente como getPositionKey().
+		return board.getPawnKey();
+	}
+	
+	public int getMiddlegameScore() {										// Material e posição das tabelas de PieceSquareTables (positivo: vantagem das brancas),
+		return board.getMiddlegameScore();									// mantidos incrementalmente pelo tabuleiro, inclusive em roques, en passant e promoções.
+	}
+	
+	public int getEndgameScore() {
+		return board.getEndgameScore();
+	}
+	
+	public int getGamePhase() {												// De PieceSquareTables.MAX_PHASE (todas as peças) a 0 (só reis e peões).
+		return board.getPhase();
+	}
+	
+	public int getCastlingRights() {										// bit 0: roque pequeno branco, bit 1: grande branco, bit 2: pequeno preto, bit 3: grande preto.
+		return castlingRights();
+	}
+	
+	public int getEnPassantSquare() {										// Casa de destino do en passant se algum peão do jogador da vez a ataca
+		int square = enPassantSquare(currentPlayer);						// (mesmo que a captura deixe o rei em xeque), ou -1.
+		if (square < 0 || (Attacks.pawn(opponent(currentPlayer), square) & board.pieces(currentPlayer, PieceType.PAWN)) == 0) {
+			return -1;
+		}
+		return square;
+	}
+	
+	public ChessPiece pieceAt(int square) {									// Peça na casa (índice row * 8 + column, como em Move), ou null.
+		return (ChessPiece) board.piece(square);
+	}
+	
+	public long bitboard(Color color, PieceType type) {						// Casas ocupadas pelas peças de uma cor e tipo.
+		return board.pieces(color, type);
+	}
+	
+	public boolean isCapture(int move) {
+		return board.piece(Move.to(move)) != null || Move.isEnPassant(move);
+	}
+	
+	public int staticExchange(int move) {									// Saldo de material (em centipeões) da troca iniciada pelo lance, com as melhores
+		return StaticExchange.evaluate(board, move, exchangeBuffer);		// recapturas dos dois lados (SEE). Negativo: o lance perde material.
+	}
+	
+	public boolean isRepetition() {											// Verifica se a posição atual já ocorreu desde o último lance irreversível,
+		long key = getPositionKey();										// percorrendo a pilha de lances feitos com makeMove(int) e, numa cópia, o histórico herdado.
+		int limit = Math.min(halfmoveClock, ply + earlierKeys.length);
+		for (int i = 2; i <= limit; i += 2) {
+			if (previousKey(i) == key) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private long previousKey(int plies) {									// Chave da posição de 'plies' lances atrás (1 <= plies <= ply + earlierKeys.length).
+		return (plies <= ply) ? undoPositionKey[ply - plies] : earlierKeys[earlierKeys.length - (plies - ply)];
+	}
+	
 	
 	public ChessPiece[][] getPieces() {																	// Este método retorna uma matriz de peças de xadrez (ChessPiece) representando o estado atual do tabuleiro de xadrez.
 		ChessPiece[][] mat = new ChessPiece[board.getRows()][board.getColumns()];						// Ele percorre todas as posições do tabuleiro e realiza um downcasting (conversão de tipo) das peças genéricas (Piece)
@@ -70,6 +318,10 @@ public class ChessMatch {
 		return mat;
 	}
 	
+	public int legalMoves(int[] moves) {											// Escreve no buffer os lances legais do jogador da vez (ver Move) e retorna quantos são.
+		return legalMoves(currentPlayer, moves);
+	}
+	
 	public boolean [][] possibleMoves(ChessPosition sourcePosition) {
 		Position position = sourcePosition.toPosition();							// Converte a posição de origem de ChessPosition para Position, facilitando o uso das posições no código,
 		validadeSourcePosition(position);											// valida a posição e obtém uma matriz de movimentos possíveis para a peça na posição de origem especificada.		
@@ -81,44 +333,34 @@ public class ChessMatch {
 		Position target = targetPosition.toPosition();														// O método converte as posições de ChessPosition para Position, valida a posição de origem e destino, realiza a jogada,
 		validadeSourcePosition(source);																		// captura qualquer peça adversária na posição de destino e retorna a peça capturada (ou null se não houver captura).
 		validadeTargetPosition(source, target);
-		Piece capturedPiece = makeMove(source, target); 
-		
-		if (testCheck(currentPlayer)) {
-			undoMove(source, target, capturedPiece);
+		int move = findLegalMove(board.square(source), board.square(target));
+		if (move == -1) {
 			throw new ChessException("You can't put yourself in check");
 		}
-		
-		ChessPiece movedPiece = (ChessPiece)board.piece(target);
+		ChessPiece capturedPiece = makeMove(move);											// makeMove já troca o jogador da vez e atualiza o en passant e o xeque.
 		
 		//specialmove promotion
 		promoted = null;
-		if(movedPiece instanceof Pawn) {
-			if(movedPiece.getColor() == Color.WHITE && target.getRow() == 0 || movedPiece.getColor() == Color.BLACK && target.getRow() == 7) {
-				promoted = (ChessPiece)board.piece(target);
-				promoted = replacePromotedPiece("Q");
-			}
-			
+		if (Move.promotion(move) != null) {
+			promoted = (ChessPiece)board.piece(target);
 		}
 		
+		detectGameEnd();
 		
-		check = (testCheck(opponent(currentPlayer))) ? true : false;
-		
-		if(testCheckMate(opponent(currentPlayer))) {
-			checkMate = true;
-		}
-		else {
-		nextTurn();
+		return capturedPiece;
+	}
+	
+	public void detectGameEnd() {																			// Marca o mate ou o afogamento da posição atual, como performChessMove faz a cada lance.
+		if (winnerToMove) {																					// Para partidas reproduzidas com makeMove(int), que não verifica o fim do jogo.
+			return;
 		}
-		
-		// #specialmove  en passant
-		if (movedPiece instanceof Pawn && (target.getRow() == source.getRow() - 2 || target.getRow() == source.getRow() + 2 )) {
-			enPassantVulnerable = movedPiece;	
+		if(testCheckMate(currentPlayer)) {
+			checkMate = true;
+			showWinner();																	// A partida termina com o vencedor como jogador da vez.
 		}
 		else {
-			enPassantVulnerable = null;
+		stalemate = testStalemate(currentPlayer);
 		}
-		
-		return (ChessPiece)capturedPiece;
 	}
 	
 	public ChessPiece replacePromotedPiece (String type) {
@@ -130,12 +372,28 @@ public class ChessMatch {
 		}
 		
 		Position pos = promoted.getChessPosition().toPosition();
-		Piece p = board.removePiece(pos);
+		ChessPiece p = (ChessPiece) board.removePiece(pos);
 		piecesOnTheBoard.remove(p);
 		
 		ChessPiece newPiece = newPiece(type, promoted.getColor());
+		newPiece.increaseMoveCount();
 		board.placePiece(newPiece, pos);
 		piecesOnTheBoard.add(newPiece);
+		int last = undoMove[ply - 1];													// Registra a peça escolhida no último lance da pilha de desfazer.
+		undoMove[ply - 1] = Move.promotion(Move.from(last), Move.to(last), newPiece.getType()) | (last & (Move.CASTLING | Move.EN_PASSANT));
+		
+		if (checkMate) {																// O xeque, o mate e o afogamento foram calculados com a dama: refaz com a peça escolhida.
+			checkMate = false;
+			hideWinner();
+		}
+		check = testCheck(currentPlayer);
+		if (testCheckMate(currentPlayer)) {
+			checkMate = true;
+			showWinner();
+		}
+		else {
+			stalemate = testStalemate(currentPlayer);
+		}
 		
 		return newPiece;	
 	}
@@ -147,97 +405,164 @@ public class ChessMatch {
 		return new Queen(board, color);
 	}
 	
+	private static PieceType fenPieceType(char c) {
+		int index = FEN_PIECES.indexOf(Character.toLowerCase(c));
+		if (index < 0) {
+			throw new ChessException("Invalid FEN piece: " + c);
+		}
+		return PieceType.values()[index];
+	}
 	
+	private static boolean mayCastle(ChessPiece piece, int square, String castling) {		// Rei ou torre na casa inicial de um roque permitido pelo campo de roque do FEN.
+		boolean white = piece.getColor() == Color.WHITE;
+		String kingSide = white ? "K" : "k";
+		String queenSide = white ? "Q" : "q";
+		int homeRow = white ? 56 : 0;
+		if (piece.getType() == PieceType.KING) {
+			return square == homeRow + 4 && (castling.contains(kingSide) || castling.contains(queenSide));
+		}
+		return (square == homeRow + 7 && castling.contains(kingSide)) || (square == homeRow && castling.contains(queenSide));
+	}
 	
+	private static int fenCounter(String field) {									// Contador de meios-lances ou de lances do FEN (inteiro não negativo).
+		try {
+			int value = Integer.parseInt(field);
+			if (value >= 0) {
+				return value;
+			}
+		}
+		catch (NumberFormatException e) {
+		}
+		throw new ChessException("Invalid FEN move counter: " + field);
+	}
 	
-	private Piece makeMove (Position source, Position target) {															
-		ChessPiece p =(ChessPiece) board.removePiece(source);	
-		p.increaseMoveCount();																							// Este método executa uma jogada de xadrez no tabuleiro, movendo uma peça da posição de origem para a posição de destino.
-		Piece capturedPiece = board.removePiece(target);																// Ele remove a peça da posição de origem, verifica se há uma peça na posição de destino (realizando uma possível captura),
-		board.placePiece(p, target);																					// e coloca a peça na posição de destino.
-		if (capturedPiece != null) {                                                                                    // O método retorna a peça capturada (ou null, se não houve captura).
+	private ChessPiece newPiece(PieceType type, Color color) {
+		if (type == PieceType.PAWN) return new Pawn(board, color, this);
+		if (type == PieceType.KING) return new King(board, color);
+		if (type == PieceType.BISHOP) return new Bishop(board, color);
+		if (type == PieceType.KNIGHT) return new Knight(board, color);
+		if (type == PieceType.ROOK) return new Rook(board, color);
+		return new Queen(board, color);
+	}
+	
+	
+	
+	
+	public ChessPiece makeMove(int move) {																			// Executa um lance legal empacotado (ver Move), como os gerados por legalMoves(int[]).
+		if (ply == undoMove.length) {																				// Guarda na pilha tudo o que undoMove() precisa para restaurar a posição
+			growUndoStack();																						// e retorna a peça capturada (ou null, se não houve captura).
+		}
+		int from = Move.from(move);
+		int to = Move.to(move);
+		undoMove[ply] = move;
+		undoEnPassantVulnerable[ply] = enPassantVulnerable;
+		undoEnPassantColumn[ply] = enPassantColumn;
+		undoCheck[ply] = check;
+		undoStateKey[ply] = stateKey;
+		undoPositionKey[ply] = getPositionKey();
+		undoHalfmoveClock[ply] = halfmoveClock;
+		int rights = castlingRights();
+		
+		ChessPiece p = (ChessPiece) board.removePiece(from);
+		p.increaseMoveCount();
+		int captureSquare = Move.isEnPassant(move) ? enPassantVulnerable.getSquare() : to;						// specialmove en passant pawn
+		ChessPiece capturedPiece = (ChessPiece) board.removePiece(captureSquare);
+		if (capturedPiece != null) {
 			piecesOnTheBoard.remove(capturedPiece);
-			capturedPieces.add(capturedPiece);
+			capturedPieces[capturedCount++] = capturedPiece;
 		}
+		undoCaptured[ply] = capturedPiece;
 		
-		// specialmove castling kingside rook
-		if (p instanceof King && target.getColumn() == source.getColumn() + 2) {
-			Position sourceT = new Position(source.getRow(), source.getColumn() + 3);
-			Position targetT = new Position(source.getRow(), source.getColumn() + 1);
-			ChessPiece rook = (ChessPiece) board.removePiece(sourceT);
-			board.placePiece(rook, targetT);
-			rook.increaseMoveCount();
+		// specialmove promotion
+		PieceType promotion = Move.promotion(move);
+		undoPromotedPawn[ply] = null;
+		if (promotion != null) {
+			piecesOnTheBoard.remove(p);
+			undoPromotedPawn[ply] = p;
+			p = newPiece(promotion, p.getColor());
+			p.increaseMoveCount();
+			piecesOnTheBoard.add(p);
 		}
-
-		// specialmove castling quuenside rook
-		if (p instanceof King && target.getColumn() == source.getColumn() - 2) {
-			Position sourceT = new Position(source.getRow(), source.getColumn() - 4);
-			Position targetT = new Position(source.getRow(), source.getColumn() - 1);
-			ChessPiece rook = (ChessPiece) board.removePiece(sourceT);
-			board.placePiece(rook, targetT);
+		board.placePiece(p, to);
+		
+		// specialmove castling: a torre vai do canto para o lado do rei (kingside +3 -> +1, queenside -4 -> -1)
+		if (Move.isCastling(move)) {
+			ChessPiece rook = (ChessPiece) board.removePiece(to > from ? from + 3 : from - 4);
+			board.placePiece(rook, to > from ? from + 1 : from - 1);
 			rook.increaseMoveCount();
 		}
+		stateKey ^= Zobrist.castling(rights) ^ Zobrist.castling(castlingRights());
 		
-		// specialmove en passant pawn
-		if (p instanceof Pawn) {
-			if (source.getColumn() != target.getColumn() && capturedPiece == null) {
-				Position pawnPosition;
-				if (p.getColor() == Color.WHITE) {
-					pawnPosition = new Position(target.getRow() + 1, target.getColumn());
-				} else {
-					pawnPosition = new Position(target.getRow() - 1, target.getColumn());
-				}
-				capturedPiece = board.removePiece(pawnPosition);
-				capturedPieces.add(capturedPiece);
-				piecesOnTheBoard.remove(capturedPiece);
-			}
+		// #specialmove en passant
+		if (p.getType() == PieceType.PAWN && (to - from == 16 || from - to == 16)) {
+			setEnPassantVulnerable(p);
 		}
-
+		else {
+			setEnPassantVulnerable(null);
+		}
+		
+		halfmoveClock = (capturedPiece != null || undoPromotedPawn[ply] != null || p.getType() == PieceType.PAWN) ? 0 : halfmoveClock + 1;
+		ply++;
+		nextTurn();
+		check = testCheck(currentPlayer);
 		return capturedPiece;
-	}				
+	}
 	
-	private void undoMove(Position source, Position target, Piece capturedPiece) {
-		ChessPiece p = (ChessPiece) board.removePiece(target);
+	public void undoMove() {																						// Desfaz o último lance feito com makeMove(int), restaurando a posição anterior.
+		if (ply == 0) {
+			throw new IllegalStateException("There is no move to undo");
+		}
+		if (winnerToMove) {
+			checkMate = false;
+			hideWinner();
+		}
+		previousTurn();
+		ply--;
+		int move = undoMove[ply];
+		int from = Move.from(move);
+		int to = Move.to(move);
+		
+		ChessPiece p = (ChessPiece) board.removePiece(to);
+		if (undoPromotedPawn[ply] != null) {
+			piecesOnTheBoard.remove(p);
+			p = undoPromotedPawn[ply];
+			piecesOnTheBoard.add(p);
+		}
 		p.decreaseMoveCount();
-		board.placePiece(p, source);
+		board.placePiece(p, from);
+		
+		ChessPiece capturedPiece = undoCaptured[ply];
 		if (capturedPiece != null) {
-			board.placePiece(capturedPiece, target);
-			capturedPieces.remove(capturedPiece);
+			int captureSquare = Move.isEnPassant(move) ? to + (to < from ? 8 : -8) : to;							// O peão capturado en passant fica atrás da casa de destino.
+			board.placePiece(capturedPiece, captureSquare);
+			capturedPieces[--capturedCount] = null;
 			piecesOnTheBoard.add(capturedPiece);
 		}
-
-		// specialmove castling kingside rook
-		if (p instanceof King && target.getColumn() == source.getColumn() + 2) {
-			Position sourceT = new Position(source.getRow(), source.getColumn() + 3);
-			Position targetT = new Position(source.getRow(), source.getColumn() + 1);
-			ChessPiece rook = (ChessPiece) board.removePiece(targetT);
-			board.placePiece(rook, sourceT);
-			rook.decreaseMoveCount();
-		}
-
-		// specialmove castling quuenside rook
-		if (p instanceof King && target.getColumn() == source.getColumn() - 2) {
-			Position sourceT = new Position(source.getRow(), source.getColumn() - 4);
-			Position targetT = new Position(source.getRow(), source.getColumn() - 1);
-			ChessPiece rook = (ChessPiece) board.removePiece(targetT);
-			board.placePiece(rook, sourceT);
-			rook.decreaseMoveCount();
-		}
 		
-		// specialmove en passant pawn
-		if (p instanceof Pawn) {
-			if (source.getColumn() != target.getColumn() && capturedPiece == enPassantVulnerable) {
-				ChessPiece pawn = (ChessPiece)board.removePiece(target);
-				Position pawnPosition;
-				if (p.getColor() == Color.WHITE) {
-					pawnPosition = new Position(3, target.getColumn());
-				} else {
-					pawnPosition = new Position(4, target.getColumn());
-				}
-				board.placePiece(pawn, pawnPosition);
-			}
+		if (Move.isCastling(move)) {
+			ChessPiece rook = (ChessPiece) board.removePiece(to > from ? from + 1 : from - 1);
+			board.placePiece(rook, to > from ? from + 3 : from - 4);
+			rook.decreaseMoveCount();
 		}
 		
+		enPassantVulnerable = undoEnPassantVulnerable[ply];
+		enPassantColumn = undoEnPassantColumn[ply];
+		check = undoCheck[ply];
+		stateKey = undoStateKey[ply];
+		halfmoveClock = undoHalfmoveClock[ply];
+	}
+	
+	private void growUndoStack() {
+		int size = undoMove.length * 2;
+		undoMove = Arrays.copyOf(undoMove, size);
+		undoCaptured = Arrays.copyOf(undoCaptured, size);
+		undoPromotedPawn = Arrays.copyOf(undoPromotedPawn, size);
+		undoEnPassantVulnerable = Arrays.copyOf(undoEnPassantVulnerable, size);
+		undoEnPassantColumn = Arrays.copyOf(undoEnPassantColumn, size);
+		undoCheck = Arrays.copyOf(undoCheck, size);
+		undoStateKey = Arrays.copyOf(undoStateKey, size);
+		undoPositionKey = Arrays.copyOf(undoPositionKey, size);
+		undoHalfmoveClock = Arrays.copyOf(undoHalfmoveClock, size);
 	}
 	
 	
@@ -263,6 +588,54 @@ public class ChessMatch {
 	private void nextTurn() {
 		turn++;
 		currentPlayer = (currentPlayer == Color.WHITE) ? Color.BLACK : Color.WHITE;
+		stateKey ^= Zobrist.side();
+	}
+	
+	private void previousTurn() {
+		turn--;
+		currentPlayer = (currentPlayer == Color.WHITE) ? Color.BLACK : Color.WHITE;
+		stateKey ^= Zobrist.side();
+	}
+	
+	private void showWinner() {														// Só a apresentação: o hash e o en passant continuam os do lado que joga.
+		winnerToMove = true;
+		turn--;
+		currentPlayer = opponent(currentPlayer);
+	}
+	
+	private void hideWinner() {
+		winnerToMove = false;
+		turn++;
+		currentPlayer = opponent(currentPlayer);
+	}
+	
+	private void setEnPassantVulnerable(ChessPiece piece) {							// Atualiza o peão vulnerável ao en passant e a parte correspondente do hash (a coluna do peão).
+		if (enPassantVulnerable != null) {											// A coluna é guardada à parte porque o peão pode já ter sido capturado (en passant).
+			stateKey ^= Zobrist.enPassant(enPassantColumn);
+		}
+		enPassantVulnerable = piece;
+		if (enPassantVulnerable != null) {
+			enPassantColumn = enPassantVulnerable.getSquare() % 8;
+			stateKey ^= Zobrist.enPassant(enPassantColumn);
+		}
+	}
+	
+	private int castlingRights() {													// Direitos de roque derivados de getMoveCount() do rei e das torres nas casas iniciais.
+		int rights = 0;																// bit 0: roque pequeno branco, bit 1: grande branco, bit 2: pequeno preto, bit 3: grande preto.
+		if (unmoved(60, PieceType.KING, Color.WHITE)) {
+			if (unmoved(63, PieceType.ROOK, Color.WHITE)) rights |= 1;
+			if (unmoved(56, PieceType.ROOK, Color.WHITE)) rights |= 2;
+		}
+		if (unmoved(4, PieceType.KING, Color.BLACK)) {
+			if (unmoved(7, PieceType.ROOK, Color.BLACK)) rights |= 4;
+			if (unmoved(0, PieceType.ROOK, Color.BLACK)) rights |= 8;
+		}
+		return rights;
+	}
+	
+	private boolean unmoved(int square, PieceType type, Color color) {
+		ChessPiece p = (ChessPiece) board.piece(square);
+		return p != null && p.getType() == type && p.getColor() == color && p.getMoveCount() == 0;
 	}
 	
 	private Color opponent(Color color) {
@@ -270,51 +643,44 @@ public class ChessMatch {
 	}
 	
 	private ChessPiece king(Color color) {
-		List<Piece> list = piecesOnTheBoard.stream().filter(x -> ((ChessPiece)x).getColor() == color).collect(Collectors.toList());
-		for (Piece p : list) {
-			if (p instanceof King) {
-				return (ChessPiece) p;
-			}
+		ChessPiece king = piecesOnTheBoard.king(color);
+		if (king != null) {
+			return king;
 		}
 		throw new IllegalStateException("There is no " + color + "king on the board");
 	}
 	private boolean testCheck(Color color) {
-		Position kingPosition = king(color).getChessPosition().toPosition();
-		List<Piece> opponentPieces = piecesOnTheBoard.stream().filter(x -> ((ChessPiece)x).getColor() == opponent(color)).collect(Collectors.toList());
-		for (Piece p : opponentPieces) {
-			boolean[][] mat = p.possibleMoves();
-			if (mat[kingPosition.getRow()][kingPosition.getColumn()]) {
-				return true;
+		return board.isSquareAttacked(king(color).getSquare(), opponent(color));
+	}
+	
+	private boolean testCheckMate(Color color) {							// Xeque-mate: o rei está em xeque e não há nenhum lance legal.
+		return testCheck(color) && legalMoves(color, moveBuffer) == 0;
+	}
+	
+	private boolean testStalemate(Color color) {							// Afogamento: o rei não está em xeque, mas não há nenhum lance legal.
+		return !testCheck(color) && legalMoves(color, moveBuffer) == 0;
+	}
+	
+	private int legalMoves(Color color, int[] moves) {
+		return MoveGenerator.generateLegalMoves(board, color, enPassantSquare(color), castlingRights(), moves);
+	}
+	
+	private int findLegalMove(int source, int target) {						// Lance legal de source para target (promovendo a dama), ou -1 se não houver.
+		int count = legalMoves(currentPlayer, moveBuffer);
+		for (int i = 0; i < count; i++) {
+			int move = moveBuffer[i];
+			if (Move.from(move) == source && Move.to(move) == target && (Move.promotion(move) == null || Move.promotion(move) == PieceType.QUEEN)) {
+				return move;
 			}
 		}
-		return false;
+		return -1;
 	}
 	
-	private boolean testCheckMate(Color color) {
-		if (!testCheck(color)) {
-			return false;
-		}
-		List<Piece> list = piecesOnTheBoard.stream().filter(x -> ((ChessPiece)x).getColor() == color).collect(Collectors.toList());
-		for (Piece p : list) {
-			boolean[][] mat = p.possibleMoves();
-			for (int i = 0; i<board.getRows(); i++) {
-				for (int j = 0; j<board.getColumns(); j++) {
-					if (mat[i][j]) {
-						Position source = ((ChessPiece)p).getChessPosition().toPosition();
-						Position target = new Position (i, j);
-						Piece capturedPiece = makeMove(source, target);
-						boolean testCheck = testCheck(color);
-						undoMove(source, target, capturedPiece);
-						if(!testCheck) {
-							return false;
-						}
-					}
-				}
-			}
-			
+	private int enPassantSquare(Color color) {								// Casa de destino de uma captura en passant disponível para 'color', ou -1 se não houver.
+		if (enPassantVulnerable == null || enPassantVulnerable.getColor() == color) {
+			return -1;
 		}
-		return true;
-		
+		return enPassantVulnerable.getSquare() + ((color == Color.WHITE) ? -8 : 8);
 	}
 	
 	private void placeNewPiece(char column, int row, ChessPiece piece) {					
@@ -329,7 +695,7 @@ public class ChessMatch {
 			placeNewPiece('b', 1, new Knight(board, Color.WHITE));
 			placeNewPiece('c', 1, new Bishop(board, Color.WHITE));
 			placeNewPiece('d', 1, new Queen(board, Color.WHITE));
-	        placeNewPiece('e', 1, new King(board, Color.WHITE, this));
+	        placeNewPiece('e', 1, new King(board, Color.WHITE));
 	        placeNewPiece('f', 1, new Bishop(board, Color.WHITE));
 			placeNewPiece('g', 1, new Knight(board, Color.WHITE));
 	        placeNewPiece('h', 1, new Rook(board, Color.WHITE));
@@ -346,7 +712,7 @@ public class ChessMatch {
 			placeNewPiece('b', 8, new Knight(board, Color.BLACK));
 			placeNewPiece('c', 8, new Bishop(board, Color.BLACK));
 			placeNewPiece('d', 8, new Queen(board, Color.BLACK));
-	        placeNewPiece('e', 8, new King(board, Color.BLACK, this));
+	        placeNewPiece('e', 8, new King(board, Color.BLACK));
 	        placeNewPiece('f', 8, new Bishop(board, Color.BLACK));
 			placeNewPiece('g', 8, new Knight(board, Color.BLACK));
 	        placeNewPiece('h', 8, new Rook(board, Color.BLACK));
@@ -8,6 +8,7 @@ public abstract class ChessPiece extends Piece {
 
 	private Color color;
 	private int moveCount;
+	int registryIndex = -1;						// Posição da peça na lista do PieceRegistry (mantida pelo próprio registro).
 
 	public ChessPiece(Board board, Color color) {
 		super(board);
@@ -17,6 +18,8 @@ public abstract class ChessPiece extends Piece {
 	public Color getColor() {
 		return color;
 	}
+
+	public abstract PieceType getType();
 	
 	public int getMoveCount() {
 		return moveCount;
@@ -36,6 +39,10 @@ public abstract class ChessPiece extends Piece {
 	
 	
 	
+	protected ChessBoard getChessBoard() {
+		return (ChessBoard) getBoard();
+	}
+
 	protected boolean isThereOpponentPiece(Position position) {				// Verifica se há uma peça adversária na posição especificada. Para isso, obtém a peça na posição
 		ChessPiece p = (ChessPiece)getBoard().piece(position);				// através do método getBoard().piece(position), verifica se a peça não é nula (ou seja, há uma peça na posição)
 		return p != null && p.getColor() != color;                          // e compara a cor dessa peça com a cor da peça atual. Se a cor for diferente, significa que é uma peça adversária.																	
@@ -0,0 +1,72 @@
+package chess;
+
+public final class Move {
+
+	// Lance empacotado em um int, compatível com Piece.possibleMoves(int[], int):
+	// bits 0-5 = casa de origem, bits 6-11 = casa de destino, bits 12-14 = tipo da promoção (PieceType.ordinal(), 0 = nenhuma),
+	// bit 15 = roque, bit 16 = en passant.
+
+	public static final int CASTLING = 1 << 15;
+	public static final int EN_PASSANT = 1 << 16;
+	private static final int PROMOTION_SHIFT = 12;
+
+	private Move() {
+	}
+
+	public static int of(int from, int to) {
+		return from | (to << 6);
+	}
+
+	public static int of(int from, int to, int flags) {
+		return from | (to << 6) | flags;
+	}
+
+	public static int promotion(int from, int to, PieceType type) {
+		return from | (to << 6) | (type.ordinal() << PROMOTION_SHIFT);
+	}
+
+	public static int from(int move) {
+		return move & 63;
+	}
+
+	public static int to(int move) {
+		return (move >>> 6) & 63;
+	}
+
+	public static PieceType promotion(int move) {						// Tipo da peça promovida ou null se o lance não for uma promoção.
+		int type = (move >>> PROMOTION_SHIFT) & 7;
+		return (type == 0) ? null : PieceType.values()[type];
+	}
+
+	public static boolean isCastling(int move) {
+		return (move & CASTLING) != 0;
+	}
+
+	public static boolean isEnPassant(int move) {
+		return (move & EN_PASSANT) != 0;
+	}
+
+	public static String toString(int move) {							// Notação de coordenadas (ex.: e2e4, e7e8q).
+		String s = squareName(from(move)) + squareName(to(move));
+		PieceType promotion = promotion(move);
+		if (promotion != null) {
+			s += "nbrq".charAt(promotion.ordinal() - 1);
+		}
+		return s;
+	}
+
+	public static int parse(ChessMatch match, String text) {				// Lance legal da partida na notação de coordenadas (ex.: e2e4, e7e8q), ou -1.
+		int[] moves = new int[256];
+		int count = match.legalMoves(moves);
+		for (int i = 0; i < count; i++) {
+			if (toString(moves[i]).equals(text)) {
+				return moves[i];
+			}
+		}
+		return -1;
+	}
+
+	public static String squareName(int square) {
+		return "" + (char) ('a' + square % 8) + (8 - square / 8);
+	}
+}
@@ -0,0 +1,144 @@
+package chess;
+
+final class MoveGenerator {
+
+	// Gerador de lances legais: calcula antes as peças cravadas e a máscara de evasão de xeque,
+	// e emite apenas lances que não deixam o próprio rei em xeque (sem fazer e desfazer lances).
+
+	private MoveGenerator() {
+	}
+
+	static int generateLegalMoves(ChessBoard board, Color us, int enPassantSquare, int castlingRights, int[] moves) {
+		Color them = (us == Color.WHITE) ? Color.BLACK : Color.WHITE;
+		long own = board.pieces(us);
+		long enemy = board.pieces(them);
+		long occupied = board.getOccupied();
+		int king = Long.numberOfTrailingZeros(board.pieces(us, PieceType.KING));
+		int count = 0;
+
+		// Lances do rei: a casa de destino não pode ser atacada, simulando o rei já fora da casa de origem
+		// (assim ele não "se esconde" atrás de si mesmo na linha de um xeque).
+		long occupiedWithoutKing = occupied ^ (1L << king);
+		long targets = Attacks.king(king) & ~own;
+		while (targets != 0) {
+			int to = Long.numberOfTrailingZeros(targets);
+			targets &= targets - 1;
+			if (board.attackers(to, them, occupiedWithoutKing) == 0) {
+				moves[count++] = Move.of(king, to);
+			}
+		}
+
+		long checkers = board.attackers(king, them, occupied);
+		if (Long.bitCount(checkers) > 1) {											// Xeque duplo: só o rei pode se mover.
+			return count;
+		}
+		long checkMask = (checkers == 0) ? ~0L : checkers | Attacks.between(king, Long.numberOfTrailingZeros(checkers));
+
+		// Peças cravadas: a única peça entre o rei e uma peça deslizante adversária alinhada com ele.
+		long queens = board.pieces(them, PieceType.QUEEN);
+		long snipers = (Attacks.rook(king, 0L) & (board.pieces(them, PieceType.ROOK) | queens))
+				| (Attacks.bishop(king, 0L) & (board.pieces(them, PieceType.BISHOP) | queens));
+		long pinned = 0L;
+		while (snipers != 0) {
+			int sniper = Long.numberOfTrailingZeros(snipers);
+			snipers &= snipers - 1;
+			long blockers = Attacks.between(king, sniper) & occupied;
+			if (blockers != 0 && (blockers & (blockers - 1)) == 0) {
+				pinned |= blockers & own;
+			}
+		}
+
+		// #specialmove castling
+		if (checkers == 0) {
+			int kingside = (us == Color.WHITE) ? 1 : 4;
+			int queenside = (us == Color.WHITE) ? 2 : 8;
+			if ((castlingRights & kingside) != 0 && (occupied & (0b11L << (king + 1))) == 0
+					&& board.attackers(king + 1, them, occupied) == 0 && board.attackers(king + 2, them, occupied) == 0) {
+				moves[count++] = Move.of(king, king + 2, Move.CASTLING);
+			}
+			if ((castlingRights & queenside) != 0 && (occupied & (0b111L << (king - 3))) == 0
+					&& board.attackers(king - 1, them, occupied) == 0 && board.attackers(king - 2, them, occupied) == 0) {
+				moves[count++] = Move.of(king, king - 2, Move.CASTLING);
+			}
+		}
+
+		long allowed = ~own & checkMask;
+
+		long knights = board.pieces(us, PieceType.KNIGHT) & ~pinned;					// Um cavalo cravado nunca pode se mover.
+		while (knights != 0) {
+			int from = Long.numberOfTrailingZeros(knights);
+			knights &= knights - 1;
+			count = addMoves(from, Attacks.knight(from) & allowed, moves, count);
+		}
+
+		long bishops = board.pieces(us, PieceType.BISHOP) | board.pieces(us, PieceType.QUEEN);
+		while (bishops != 0) {
+			int from = Long.numberOfTrailingZeros(bishops);
+			bishops &= bishops - 1;
+			count = addMoves(from, Attacks.bishop(from, occupied) & allowed & pinRay(pinned, king, from), moves, count);
+		}
+
+		long rooks = board.pieces(us, PieceType.ROOK) | board.pieces(us, PieceType.QUEEN);
+		while (rooks != 0) {
+			int from = Long.numberOfTrailingZeros(rooks);
+			rooks &= rooks - 1;
+			count = addMoves(from, Attacks.rook(from, occupied) & allowed & pinRay(pinned, king, from), moves, count);
+		}
+
+		int forward = (us == Color.WHITE) ? -8 : 8;
+		int startRow = (us == Color.WHITE) ? 6 : 1;
+		int promotionRow = (us == Color.WHITE) ? 0 : 7;
+		long pawns = board.pieces(us, PieceType.PAWN);
+		while (pawns != 0) {
+			int from = Long.numberOfTrailingZeros(pawns);
+			pawns &= pawns - 1;
+			long pawnTargets = Attacks.pawn(us, from) & enemy;
+			int one = from + forward;
+			if ((occupied & (1L << one)) == 0) {
+				pawnTargets |= 1L << one;
+				if (from / 8 == startRow && (occupied & (1L << (one + forward))) == 0) {
+					pawnTargets |= 1L << (one + forward);
+				}
+			}
+			pawnTargets &= checkMask & pinRay(pinned, king, from);
+			while (pawnTargets != 0) {
+				int to = Long.numberOfTrailingZeros(pawnTargets);
+				pawnTargets &= pawnTargets - 1;
+				if (to / 8 == promotionRow) {
+					moves[count++] = Move.promotion(from, to, PieceType.QUEEN);
+					moves[count++] = Move.promotion(from, to, PieceType.KNIGHT);
+					moves[count++] = Move.promotion(from, to, PieceType.ROOK);
+					moves[count++] = Move.promotion(from, to, PieceType.BISHOP);
+				}
+				else {
+					moves[count++] = Move.of(from, to);
+				}
+			}
+
+			// #specialmove en passant
+			// Raro o bastante para ser validado simulando a ocupação final: cobre cravadas, evasões e
+			// o caso em que os dois peões saem da mesma fileira do rei ao mesmo tempo.
+			if (enPassantSquare >= 0 && (Attacks.pawn(us, from) & (1L << enPassantSquare)) != 0) {
+				long captured = 1L << (enPassantSquare - forward);
+				long after = (occupied ^ (1L << from) ^ captured) | (1L << enPassantSquare);
+				if ((board.attackers(king, them, after) & ~captured) == 0) {
+					moves[count++] = Move.of(from, enPassantSquare, Move.EN_PASSANT);
+				}
+			}
+		}
+
+		return count;
+	}
+
+	private static long pinRay(long pinned, int king, int from) {					// Uma peça cravada só pode se mover ao longo da linha que a liga ao rei.
+		return ((pinned & (1L << from)) == 0) ? ~0L : Attacks.line(king, from);
+	}
+
+	private static int addMoves(int from, long targets, int[] moves, int count) {
+		while (targets != 0) {
+			moves[count++] = Move.of(from, Long.numberOfTrailingZeros(targets));
+			targets &= targets - 1;
+		}
+		return count;
+	}
+}
@@ -0,0 +1,117 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public final class Perft {
+
+	// Contagem de nós da árvore de lances legais (perft) até uma profundidade fixa.
+	// Comparada com contagens publicadas, valida o gerador de lances; cronometrada, mede a sua velocidade.
+
+	private Perft() {
+	}
+
+	public static long perft(ChessMatch match, int depth) {
+		if (depth <= 0) {
+			return 1;
+		}
+		return perft(match, depth, new int[depth][256]);
+	}
+
+	public static Map<String, Long> divide(ChessMatch match, int depth) {		// Contagem separada por lance da raiz, útil para localizar divergências.
+		Map<String, Long> result = new LinkedHashMap<>();
+		int[] moves = new int[256];
+		int count = match.legalMoves(moves);
+		int[][] buffers = new int[Math.max(depth - 1, 1)][256];
+		for (int i = 0; i < count; i++) {
+			match.makeMove(moves[i]);
+			result.put(Move.toString(moves[i]), (depth <= 1) ? 1L : perft(match, depth - 1, buffers));
+			match.undoMove();
+		}
+		return result;
+	}
+
+	public static long parallelPerft(ChessMatch match, int depth, int threads, int hashMegabytes) {
+		// Divide os lances da raiz e do segundo nível entre as threads de um ForkJoinPool, cada tarefa com a sua
+		// própria cópia da partida. As contagens das subárvores ficam em uma tabela compartilhada (hashMegabytes = 0 desliga).
+		if (depth <= 0) {
+			return 1;
+		}
+		PerftTable table = (hashMegabytes > 0) ? new PerftTable(hashMegabytes) : null;
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			return pool.invoke(new PerftTask(match.copy(), depth, 2, table));
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	private static long perft(ChessMatch match, int depth, int[][] buffers) {
+		return perft(match, depth, buffers, null);
+	}
+
+	private static long perft(ChessMatch match, int depth, int[][] buffers, PerftTable table) {
+		int[] moves = buffers[depth - 1];											// Um buffer por nível: nenhuma alocação durante a contagem.
+		int count = match.legalMoves(moves);
+		if (depth == 1) {
+			return count;
+		}
+		if (table != null) {
+			long cached = table.probe(match.getPositionKey(), depth);
+			if (cached >= 0) {
+				return cached;
+			}
+		}
+		long nodes = 0;
+		for (int i = 0; i < count; i++) {
+			match.makeMove(moves[i]);
+			nodes += perft(match, depth - 1, buffers, table);
+			match.undoMove();
+		}
+		if (table != null) {
+			table.store(match.getPositionKey(), depth, nodes);
+		}
+		return nodes;
+	}
+
+	private static class PerftTask extends RecursiveTask<Long> {
+		private static final long serialVersionUID = 1L;
+
+		private final ChessMatch match;
+		private final int depth;
+		private final int splitPlies;											// Quantos níveis ainda são divididos em tarefas.
+		private final PerftTable table;
+
+		PerftTask(ChessMatch match, int depth, int splitPlies, PerftTable table) {
+			this.match = match;
+			this.depth = depth;
+			this.splitPlies = splitPlies;
+			this.table = table;
+		}
+
+		@Override
+		protected Long compute() {
+			if (splitPlies == 0 || depth <= 2) {
+				return perft(match, depth, new int[depth][256], table);
+			}
+			int[] moves = new int[256];
+			int count = match.legalMoves(moves);
+			List<PerftTask> tasks = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				match.makeMove(moves[i]);
+				tasks.add(new PerftTask(match.copy(), depth - 1, splitPlies - 1, table));
+				match.undoMove();
+			}
+			long nodes = 0;
+			for (PerftTask task : invokeAll(tasks)) {
+				nodes += task.join();
+			}
+			return nodes;
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package chess;
+
+final class PerftTable {
+
+	// Tabela de contagens de subárvores do perft, compartilhada entre threads sem travas.
+	// Cada entrada ocupa dois longs: (chave ^ contagem) e contagem. Uma escrita concorrente ou parcial
+	// produz um par que não confere no XOR e é tratada como ausência, nunca como resultado errado.
+
+	private final long[] entries;
+	private final int mask;
+
+	PerftTable(int megabytes) {
+		long slots = Long.highestOneBit(Math.max(1L, megabytes * 1024L * 1024L / 16));
+		slots = Math.min(slots, 1 << 29);
+		entries = new long[(int) slots * 2];
+		mask = (int) slots - 1;
+	}
+
+	long probe(long positionKey, int depth) {									// Contagem guardada para a posição e profundidade, ou -1.
+		long key = key(positionKey, depth);
+		int index = ((int) key & mask) * 2;
+		long nodes = entries[index + 1];
+		return ((entries[index] ^ nodes) == key) ? nodes : -1;
+	}
+
+	void store(long positionKey, int depth, long nodes) {
+		long key = key(positionKey, depth);
+		int index = ((int) key & mask) * 2;
+		entries[index] = key ^ nodes;
+		entries[index + 1] = nodes;
+	}
+
+	private static long key(long positionKey, int depth) {						// A profundidade entra na chave: a mesma posição tem uma contagem por profundidade.
+		return positionKey ^ (depth * 0x9E3779B97F4A7C15L);
+	}
+}
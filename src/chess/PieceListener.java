@@ -0,0 +1,12 @@
+package chess;
+
+public interface PieceListener {
+
+	// Recebe cada peça colocada ou removida do tabuleiro (lances, desfazer, roque, en passant e promoção),
+	// permitindo manter estruturas incrementais fora do tabuleiro, como o acumulador de uma rede neural.
+	// index = ChessBoard.index(color, type); square no índice do Board (a8 = 0, h1 = 63).
+
+	void piecePlaced(int index, int square);
+
+	void pieceRemoved(int index, int square);
+}
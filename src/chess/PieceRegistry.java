@@ -0,0 +1,40 @@
+package chess;
+
+final class PieceRegistry {
+
+	// Índice das peças em jogo, agrupadas por cor e tipo (mesmo índice de ChessBoard.index(color, type)).
+	// Cada peça guarda a própria posição na lista, então inserir e remover custa O(1) (remoção por troca com a última).
+
+	private static final int CAPACITY = 10;									// 2 peças iniciais + 8 promoções possíveis.
+
+	private ChessPiece[][] pieces = new ChessPiece[12][CAPACITY];
+	private int[] counts = new int[12];
+
+	void add(ChessPiece piece) {
+		int index = ChessBoard.index(piece.getColor(), piece.getType());
+		piece.registryIndex = counts[index];
+		pieces[index][counts[index]++] = piece;
+	}
+
+	void remove(ChessPiece piece) {
+		int index = ChessBoard.index(piece.getColor(), piece.getType());
+		ChessPiece last = pieces[index][--counts[index]];
+		pieces[index][piece.registryIndex] = last;
+		last.registryIndex = piece.registryIndex;
+		pieces[index][counts[index]] = null;
+		piece.registryIndex = -1;
+	}
+
+	int count(Color color, PieceType type) {
+		return counts[ChessBoard.index(color, type)];
+	}
+
+	ChessPiece get(Color color, PieceType type, int i) {					// Iteração sem alocação: for (i = 0; i < count(color, type); i++) get(color, type, i)
+		return pieces[ChessBoard.index(color, type)][i];
+	}
+
+	ChessPiece king(Color color) {
+		int index = ChessBoard.index(color, PieceType.KING);
+		return (counts[index] == 0) ? null : pieces[index][0];
+	}
+}
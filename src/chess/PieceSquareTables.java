@@ -0,0 +1,130 @@
+package chess;
+
+public final class PieceSquareTables {
+
+	// Valores de material e posição por peça e casa, separados em meio-jogo e final.
+	// As tabelas abaixo estão do ponto de vista das brancas, na ordem das casas do Board (a8 = 0, h1 = 63);
+	// para as pretas a casa é espelhada verticalmente (square ^ 56) e o valor entra com sinal negativo.
+	// A fase da partida vai de 0 (só reis e peões) a 24 (todas as peças) e pondera os dois valores.
+
+	public static final int MAX_PHASE = 24;
+
+	private static final int[] MIDDLEGAME_VALUES = { 82, 337, 365, 477, 1025, 0 };		// Indexados por PieceType.ordinal().
+	private static final int[] ENDGAME_VALUES = { 94, 281, 297, 512, 936, 0 };
+	private static final int[] PHASE_WEIGHTS = { 0, 1, 1, 2, 4, 0 };
+
+	private static final int[] PAWN = {
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		 50,  50,  50,  50,  50,  50,  50,  50,
+		 10,  10,  20,  30,  30,  20,  10,  10,
+		  5,   5,  10,  25,  25,  10,   5,   5,
+		  0,   0,   0,  20,  20,   0,   0,   0,
+		  5,  -5, -10,   0,   0, -10,  -5,   5,
+		  5,  10,  10, -20, -20,  10,  10,   5,
+		  0,   0,   0,   0,   0,   0,   0,   0
+	};
+	private static final int[] PAWN_ENDGAME = {							// No final, o que importa é o avanço do peão.
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		 80,  80,  80,  80,  80,  80,  80,  80,
+		 50,  50,  50,  50,  50,  50,  50,  50,
+		 30,  30,  30,  30,  30,  30,  30,  30,
+		 15,  15,  15,  15,  15,  15,  15,  15,
+		  5,   5,   5,   5,   5,   5,   5,   5,
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		  0,   0,   0,   0,   0,   0,   0,   0
+	};
+	private static final int[] KNIGHT = {
+		-50, -40, -30, -30, -30, -30, -40, -50,
+		-40, -20,   0,   0,   0,   0, -20, -40,
+		-30,   0,  10,  15,  15,  10,   0, -30,
+		-30,   5,  15,  20,  20,  15,   5, -30,
+		-30,   0,  15,  20,  20,  15,   0, -30,
+		-30,   5,  10,  15,  15,  10,   5, -30,
+		-40, -20,   0,   5,   5,   0, -20, -40,
+		-50, -40, -30, -30, -30, -30, -40, -50
+	};
+	private static final int[] BISHOP = {
+		-20, -10, -10, -10, -10, -10, -10, -20,
+		-10,   0,   0,   0,   0,   0,   0, -10,
+		-10,   0,   5,  10,  10,   5,   0, -10,
+		-10,   5,   5,  10,  10,   5,   5, -10,
+		-10,   0,  10,  10,  10,  10,   0, -10,
+		-10,  10,  10,  10,  10,  10,  10, -10,
+		-10,   5,   0,   0,   0,   0,   5, -10,
+		-20, -10, -10, -10, -10, -10, -10, -20
+	};
+	private static final int[] ROOK = {
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		  5,  10,  10,  10,  10,  10,  10,   5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		  0,   0,   0,   5,   5,   0,   0,   0
+	};
+	private static final int[] QUEEN = {
+		-20, -10, -10,  -5,  -5, -10, -10, -20,
+		-10,   0,   0,   0,   0,   0,   0, -10,
+		-10,   0,   5,   5,   5,   5,   0, -10,
+		 -5,   0,   5,   5,   5,   5,   0,  -5,
+		  0,   0,   5,   5,   5,   5,   0,  -5,
+		-10,   5,   5,   5,   5,   5,   0, -10,
+		-10,   0,   5,   0,   0,   0,   0, -10,
+		-20, -10, -10,  -5,  -5, -10, -10, -20
+	};
+	private static final int[] KING = {								// No meio-jogo, o rei fica protegido atrás dos peões.
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-20, -30, -30, -40, -40, -30, -30, -20,
+		-10, -20, -20, -20, -20, -20, -20, -10,
+		 20,  20,   0,   0,   0,   0,  20,  20,
+		 20,  30,  10,   0,   0,  10,  30,  20
+	};
+	private static final int[] KING_ENDGAME = {						// No final, o rei é uma peça ativa e vai para o centro.
+		-50, -40, -30, -20, -20, -30, -40, -50,
+		-30, -20, -10,   0,   0, -10, -20, -30,
+		-30, -10,  20,  30,  30,  20, -10, -30,
+		-30, -10,  30,  40,  40,  30, -10, -30,
+		-30, -10,  30,  40,  40,  30, -10, -30,
+		-30, -10,  20,  30,  30,  20, -10, -30,
+		-30, -30,   0,   0,   0,   0, -30, -30,
+		-50, -30, -30, -30, -30, -30, -30, -50
+	};
+
+	private static final int[][] MIDDLEGAME = new int[12][64];		// Indexadas por ChessBoard.index(color, type), já com material e sinal.
+	private static final int[][] ENDGAME = new int[12][64];
+
+	static {
+		int[][] middlegame = { PAWN, KNIGHT, BISHOP, ROOK, QUEEN, KING };
+		int[][] endgame = { PAWN_ENDGAME, KNIGHT, BISHOP, ROOK, QUEEN, KING_ENDGAME };
+		for (PieceType type : PieceType.values()) {
+			int t = type.ordinal();
+			for (int sq = 0; sq < 64; sq++) {
+				int white = ChessBoard.index(Color.WHITE, type);
+				int black = ChessBoard.index(Color.BLACK, type);
+				MIDDLEGAME[white][sq] = MIDDLEGAME_VALUES[t] + middlegame[t][sq];
+				ENDGAME[white][sq] = ENDGAME_VALUES[t] + endgame[t][sq];
+				MIDDLEGAME[black][sq] = -(MIDDLEGAME_VALUES[t] + middlegame[t][sq ^ 56]);
+				ENDGAME[black][sq] = -(ENDGAME_VALUES[t] + endgame[t][sq ^ 56]);
+			}
+		}
+	}
+
+	private PieceSquareTables() {
+	}
+
+	public static int middlegame(int index, int square) {				// Valor (positivo para as brancas) da peça de índice ChessBoard.index(color, type) na casa.
+		return MIDDLEGAME[index][square];
+	}
+
+	public static int endgame(int index, int square) {
+		return ENDGAME[index][square];
+	}
+
+	public static int phase(PieceType type) {
+		return PHASE_WEIGHTS[type.ordinal()];
+	}
+}
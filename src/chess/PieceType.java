@@ -0,0 +1,11 @@
+package chess;
+
+public enum PieceType {
+
+	PAWN,
+	KNIGHT,
+	BISHOP,
+	ROOK,
+	QUEEN,
+	KING;
+}
@@ -0,0 +1,66 @@
+package chess;
+
+final class StaticExchange {
+
+	// Avaliação estática de trocas (SEE): simula a sequência de capturas na casa de destino, sempre com o
+	// atacante de menor valor de cada lado, e retorna o saldo de material para quem faz o lance.
+	// Cada lado pode parar de capturar quando continuar for pior. Raios-x (torre atrás de torre, dama atrás
+	// de bispo...) aparecem porque os atacantes são recalculados com a ocupação de cada passo.
+
+	static final int[] VALUES = { 100, 320, 330, 500, 900, 20000 };		// Indexado por PieceType.ordinal().
+
+	private static final PieceType[] TYPES = PieceType.values();
+
+	private StaticExchange() {
+	}
+
+	static int evaluate(ChessBoard board, int move, int[] gain) {		// gain: buffer de trabalho com pelo menos 32 posições.
+		int from = Move.from(move);
+		int to = Move.to(move);
+		ChessPiece mover = (ChessPiece) board.piece(from);
+		ChessPiece victim = (ChessPiece) board.piece(to);
+		long occupied = board.getOccupied() ^ (1L << from);
+		gain[0] = (victim != null) ? VALUES[victim.getType().ordinal()] : 0;
+		if (Move.isEnPassant(move)) {
+			gain[0] = VALUES[PieceType.PAWN.ordinal()];
+			occupied ^= 1L << (to + ((to < from) ? 8 : -8));
+		}
+		int attackerValue = VALUES[mover.getType().ordinal()];
+		PieceType promotion = Move.promotion(move);
+		if (promotion != null) {
+			gain[0] += VALUES[promotion.ordinal()] - VALUES[PieceType.PAWN.ordinal()];
+			attackerValue = VALUES[promotion.ordinal()];
+		}
+
+		Color side = (mover.getColor() == Color.WHITE) ? Color.BLACK : Color.WHITE;
+		int depth = 0;
+		while (depth < gain.length - 1) {
+			depth++;
+			gain[depth] = attackerValue - gain[depth - 1];						// Saldo especulativo, caso o adversário recapture.
+			if (Math.max(-gain[depth - 1], gain[depth]) < 0) {					// Nenhum dos lados melhora continuando a troca.
+				break;
+			}
+			long attackers = board.attackers(to, side, occupied) & occupied;
+			if (attackers == 0) {
+				break;
+			}
+			PieceType type = leastValuable(board, side, attackers);
+			occupied ^= Long.lowestOneBit(attackers & board.pieces(side, type));
+			attackerValue = VALUES[type.ordinal()];
+			side = (side == Color.WHITE) ? Color.BLACK : Color.WHITE;
+		}
+		while (--depth > 0) {
+			gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+		}
+		return gain[0];
+	}
+
+	private static PieceType leastValuable(ChessBoard board, Color side, long attackers) {
+		for (PieceType type : TYPES) {
+			if ((attackers & board.pieces(side, type)) != 0) {
+				return type;
+			}
+		}
+		return PieceType.KING;
+	}
+}
@@ -0,0 +1,56 @@
+package chess;
+
+public final class Zobrist {
+
+	// Chaves aleatórias de 64 bits usadas no hash incremental das posições.
+	// A chave de uma posição é o XOR das chaves de cada peça em sua casa, dos direitos de roque,
+	// da coluna do peão vulnerável ao en passant e do lado a jogar (quando são as pretas).
+
+	private static final long[][] PIECES = new long[12][64];		// Indexado por ChessBoard.index(color, type) e pela casa.
+	private static final long[] CASTLING = new long[16];			// Indexado pela máscara de direitos de roque.
+	private static final long[] EN_PASSANT = new long[8];			// Indexado pela coluna do peão vulnerável.
+	private static final long SIDE;
+
+	private static long seed = 0x9E3779B97F4A7C15L;				// Semente fixa: as chaves são as mesmas em toda execução.
+
+	static {
+		for (int i = 0; i < 12; i++) {
+			for (int sq = 0; sq < 64; sq++) {
+				PIECES[i][sq] = nextRandom();
+			}
+		}
+		for (int i = 1; i < 16; i++) {									// Sem direitos de roque a chave é 0.
+			CASTLING[i] = nextRandom();
+		}
+		for (int i = 0; i < 8; i++) {
+			EN_PASSANT[i] = nextRandom();
+		}
+		SIDE = nextRandom();
+	}
+
+	private Zobrist() {
+	}
+
+	public static long piece(int index, int square) {
+		return PIECES[index][square];
+	}
+
+	public static long castling(int rights) {
+		return CASTLING[rights];
+	}
+
+	public static long enPassant(int column) {
+		return EN_PASSANT[column];
+	}
+
+	public static long side() {
+		return SIDE;
+	}
+
+	private static long nextRandom() {								// xorshift64*
+		seed ^= seed >>> 12;
+		seed ^= seed << 25;
+		seed ^= seed >>> 27;
+		return seed * 2685821657736338717L;
+	}
+}
@@ -0,0 +1,134 @@
+package chess.book;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import chess.ChessMatch;
+import chess.Move;
+import chess.PieceType;
+
+public class PolyglotBook {
+
+	// Livro de abertura no formato Polyglot (.bin), mapeado em memória e consultado por busca binária pela chave
+	// da posição (PolyglotKey): O(log n) acessos ao arquivo, sem carregá-lo na heap.
+	// Entradas de 16 bytes em big-endian, ordenadas pela chave (sem sinal): chave (u64), lance (u16), peso (u16), learn (u32).
+	// Lance: bits 0-5 = destino, bits 6-11 = origem (casas do Polyglot), bits 12-14 = promoção (1 = cavalo ... 4 = dama,
+	// os mesmos valores de PieceType.ordinal()). O roque é gravado como o rei capturando a própria torre (e1h1).
+
+	private static final int ENTRY_BYTES = 16;
+	private static final int MAX_MOVES = 256;
+
+	private final ByteBuffer entries;
+	private final int size;
+	private final PolyglotKey key;
+
+	private PolyglotBook(Path file, PolyglotKey key) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE || channel.size() % ENTRY_BYTES != 0) {
+				throw new IOException("Not a Polyglot book (or larger than 2 GB): " + file);
+			}
+			entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());		// Big-endian, a ordem padrão do ByteBuffer.
+			size = (int) (channel.size() / ENTRY_BYTES);
+		}
+		this.key = key;
+	}
+
+	public static PolyglotBook open(Path file, PolyglotKey key) throws IOException {
+		return new PolyglotBook(file, key);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int probe(ChessMatch match, Random random) {							// Lance do livro sorteado com probabilidade proporcional ao peso, ou -1.
+		int[] moves = new int[MAX_MOVES];
+		int[] weights = new int[MAX_MOVES];
+		int count = moves(match, moves, weights);
+		int total = 0;
+		for (int i = 0; i < count; i++) {
+			total += weights[i];
+		}
+		if (total == 0) {
+			return -1;
+		}
+		int r = random.nextInt(total);
+		for (int i = 0; i < count; i++) {
+			r -= weights[i];
+			if (r < 0) {
+				return moves[i];
+			}
+		}
+		return -1;
+	}
+
+	public int bestMove(ChessMatch match) {										// Lance de maior peso do livro, ou -1.
+		int[] moves = new int[MAX_MOVES];
+		int[] weights = new int[MAX_MOVES];
+		int count = moves(match, moves, weights);
+		int best = -1;
+		int bestWeight = 0;
+		for (int i = 0; i < count; i++) {
+			if (weights[i] > bestWeight) {
+				best = moves[i];
+				bestWeight = weights[i];
+			}
+		}
+		return best;
+	}
+
+	public int moves(ChessMatch match, int[] moves, int[] weights) {				// Lances do livro para a posição (já convertidos em lances legais, ver Move)
+		long hash = key.hash(match);												// e seus pesos; entradas que não correspondem a um lance legal são ignoradas.
+		int[] legal = new int[MAX_MOVES];
+		int legalCount = match.legalMoves(legal);
+		int count = 0;
+		for (int i = lowerBound(hash); i < size && entries.getLong(i * ENTRY_BYTES) == hash && count < moves.length; i++) {
+			int move = toMove(entries.getShort(i * ENTRY_BYTES + 8) & 0xFFFF, legal, legalCount);
+			if (move != -1) {
+				moves[count] = move;
+				weights[count++] = entries.getShort(i * ENTRY_BYTES + 10) & 0xFFFF;
+			}
+		}
+		return count;
+	}
+
+	private int lowerBound(long hash) {												// Primeira entrada com chave >= hash.
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (Long.compareUnsigned(entries.getLong(mid * ENTRY_BYTES), hash) < 0) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private static int toMove(int code, int[] legal, int legalCount) {
+		int to = (code & 63) ^ 56;
+		int from = ((code >>> 6) & 63) ^ 56;
+		int promotion = (code >>> 12) & 7;
+		for (int i = 0; i < legalCount; i++) {
+			int move = legal[i];
+			if (Move.from(move) != from) {
+				continue;
+			}
+			int target = Move.to(move);
+			if (Move.isCastling(move)) {													// Destino do rei (g/c) trocado pela casa da torre (h/a).
+				target = (target > from) ? from + 3 : from - 4;
+			}
+			PieceType type = Move.promotion(move);
+			if (target == to && ((type == null) ? 0 : type.ordinal()) == promotion) {
+				return move;
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,98 @@
+package chess.book;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import chess.ChessMatch;
+import chess.Color;
+import chess.PieceType;
+
+public final class PolyglotKey {
+
+	// Hash de posição do formato Polyglot, usado como chave nos livros de abertura .bin.
+	// Não é o hash Zobrist da partida (getPositionKey()): usa a tabela padrão Random64 do Polyglot, com 781 números:
+	// 768 de peças (64 * tipo, onde tipo = 2 * PieceType.ordinal() + 1 para as brancas), 4 de roque, 8 de en passant e 1 do lado a jogar.
+	// A tabela vai junto com as classes, no recurso chess/book/random64.bin (os 781 longs em big-endian, 6248 bytes,
+	// na ordem da especificação), e é lida uma vez para um array estático por standard().
+	// Casas do Polyglot: 8 * fileira + coluna, com a fileira 0 = linha 1; aqui a linha 0 é a 8, por isso o "^ 56".
+
+	public static final int RANDOM_COUNT = 781;
+	public static final long START_POSITION_KEY = 0x463B96181691FC9CL;		// Chave da posição inicial na especificação do Polyglot.
+	public static final String RESOURCE = "random64.bin";
+
+	private static final int CASTLING = 768;
+	private static final int EN_PASSANT = 772;
+	private static final int TURN = 780;
+
+	private static PolyglotKey standard;
+
+	private final long[] random;
+
+	public PolyglotKey(long[] random) {
+		if (random.length != RANDOM_COUNT) {
+			throw new IllegalArgumentException("Polyglot table needs " + RANDOM_COUNT + " keys, got " + random.length);
+		}
+		this.random = random.clone();
+	}
+
+	public static synchronized PolyglotKey standard() throws IOException {	// A tabela Random64 padrão, do recurso empacotado com as classes.
+		if (standard == null) {
+			try (InputStream in = PolyglotKey.class.getResourceAsStream(RESOURCE)) {
+				if (in == null) {
+					throw new IOException("Polyglot Random64 table not bundled: chess/book/" + RESOURCE);
+				}
+				standard = of(in.readAllBytes(), RESOURCE);
+			}
+		}
+		return standard;
+	}
+
+	public static PolyglotKey load(Path file) throws IOException {			// Lê a tabela de um arquivo e confere a chave da posição inicial.
+		return of(Files.readAllBytes(file), file.toString());
+	}
+
+	private static PolyglotKey of(byte[] bytes, String source) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		if (buffer.remaining() != RANDOM_COUNT * 8) {
+			throw new IOException("Polyglot table must have " + RANDOM_COUNT * 8 + " bytes: " + source);
+		}
+		long[] random = new long[RANDOM_COUNT];
+		for (int i = 0; i < RANDOM_COUNT; i++) {
+			random[i] = buffer.getLong();
+		}
+		PolyglotKey key = new PolyglotKey(random);
+		if (key.hash(new ChessMatch()) != START_POSITION_KEY) {
+			throw new IOException("Not the standard Polyglot Random64 table: " + source);
+		}
+		return key;
+	}
+
+	public long hash(ChessMatch match) {
+		long key = 0L;
+		for (Color color : Color.values()) {
+			for (PieceType type : PieceType.values()) {
+				int kind = 2 * type.ordinal() + ((color == Color.WHITE) ? 1 : 0);
+				for (long pieces = match.bitboard(color, type); pieces != 0; pieces &= pieces - 1) {
+					key ^= random[64 * kind + (Long.numberOfTrailingZeros(pieces) ^ 56)];
+				}
+			}
+		}
+		int rights = match.getCastlingRights();								// Mesma ordem de bits do Polyglot: K, Q, k, q.
+		for (int i = 0; i < 4; i++) {
+			if ((rights & (1 << i)) != 0) {
+				key ^= random[CASTLING + i];
+			}
+		}
+		int enPassant = match.getEnPassantSquare();
+		if (enPassant >= 0) {													// Como no Polyglot, só conta se um peão do jogador da vez pode capturar.
+			key ^= random[EN_PASSANT + enPassant % 8];
+		}
+		if (match.getCurrentPlayer() == Color.WHITE) {
+			key ^= random[TURN];
+		}
+		return key;
+	}
+}
@@ -0,0 +1,147 @@
+package chess.db;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import chess.ChessException;
+import chess.ChessMatch;
+
+public class GameDatabase {
+
+	// Banco de partidas binário, somente acréscimo (gravado por GameDatabaseWriter), lido por arquivos mapeados em memória.
+	// Arquivos: <base>.cgd com os registros das partidas e <base>.cgi com o deslocamento (long) de cada registro.
+	// Registro (little-endian): u16 número de lances, u8 resultado (ver GameHeader), u8 flags (bit 0: tem FEN),
+	//   brancas, pretas e data (u8 tamanho + UTF-8 cada), FEN se houver (idem) e um u16 por lance.
+	// Código do lance: os 15 bits baixos de Move (origem, destino e promoção); roque e en passant são
+	// deduzidos da posição ao reproduzir, por isso 16 bits bastam.
+
+	static final int MAGIC = 0x42444743;					// "CGDB"
+	static final int VERSION = 1;
+	static final int FILE_HEADER_BYTES = 8;
+	static final int HAS_FEN = 1;
+
+	private final MappedFile data;
+	private final MappedFile index;
+	private final int size;
+
+	private GameDatabase(Path base) throws IOException {
+		data = new MappedFile(dataFile(base));
+		index = new MappedFile(indexFile(base));
+		ByteBuffer header = data.window(0);
+		if (data.size() < FILE_HEADER_BYTES || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+			throw new IOException("Not a game database (version " + VERSION + "): " + dataFile(base));
+		}
+		size = (int) Math.min(Integer.MAX_VALUE, index.size() / 8);
+	}
+
+	public static GameDatabase open(Path base) throws IOException {
+		return new GameDatabase(base);
+	}
+
+	static Path dataFile(Path base) {
+		return Paths.get(base + ".cgd");
+	}
+
+	static Path indexFile(Path base) {
+		return Paths.get(base + ".cgi");
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public GameHeader header(int game) {
+		long offset = offset(game);
+		ByteBuffer buffer = data.window(offset);
+		int p = MappedFile.local(offset);
+		int moveCount = buffer.getShort(p) & 0xFFFF;
+		int result = buffer.get(p + 2);
+		int flags = buffer.get(p + 3);
+		p += 4;
+		String white = string(buffer, p);
+		p += 1 + (buffer.get(p) & 0xFF);
+		String black = string(buffer, p);
+		p += 1 + (buffer.get(p) & 0xFF);
+		String date = string(buffer, p);
+		p += 1 + (buffer.get(p) & 0xFF);
+		String fen = ((flags & HAS_FEN) != 0) ? string(buffer, p) : null;
+		return new GameHeader(white, black, date, result, fen, moveCount);
+	}
+
+	public ChessMatch replay(int game) {
+		return replay(game, Integer.MAX_VALUE);
+	}
+
+	public ChessMatch replay(int game, int plies) {						// Posição após os primeiros 'plies' lances da partida,
+		ChessMatch match = replay(game, plies, null);						// com o mate ou o afogamento marcados como em performChessMove.
+		match.detectGameEnd();
+		return match;
+	}
+
+	public int positionKeys(int game, long[] keys) {						// getCanonicalKey() de cada posição da partida (a inicial e a após cada lance);
+		replay(game, Integer.MAX_VALUE, keys);									// keys precisa de getMoveCount() + 1 posições. Retorna quantas foram escritas.
+		long offset = offset(game);
+		return (data.window(offset).getShort(MappedFile.local(offset)) & 0xFFFF) + 1;
+	}
+
+	private ChessMatch replay(int game, int plies, long[] keys) {
+		long offset = offset(game);
+		ByteBuffer buffer = data.window(offset);
+		int p = MappedFile.local(offset);
+		int moveCount = buffer.getShort(p) & 0xFFFF;
+		int flags = buffer.get(p + 3);
+		p += 4;
+		for (int i = 0; i < 3; i++) {
+			p += 1 + (buffer.get(p) & 0xFF);
+		}
+		ChessMatch match = new ChessMatch();
+		if ((flags & HAS_FEN) != 0) {
+			match = ChessMatch.fromFen(string(buffer, p));
+			p += 1 + (buffer.get(p) & 0xFF);
+		}
+		int[] moves = new int[256];
+		int limit = Math.min(moveCount, plies);
+		if (keys != null) {
+			keys[0] = match.getCanonicalKey();
+		}
+		for (int i = 0; i < limit; i++) {
+			match.makeMove(decode(match, buffer.getShort(p + 2 * i) & 0xFFFF, moves));
+			if (keys != null) {
+				keys[i + 1] = match.getCanonicalKey();
+			}
+		}
+		return match;
+	}
+
+	public static int encode(int move) {
+		return move & 0x7FFF;
+	}
+
+	public static int decode(ChessMatch match, int code, int[] buffer) {	// Lance legal da posição com o código dado (buffer: trabalho, 256 posições).
+		int count = match.legalMoves(buffer);
+		for (int i = 0; i < count; i++) {
+			if ((buffer[i] & 0x7FFF) == code) {
+				return buffer[i];
+			}
+		}
+		throw new ChessException("Corrupt game database: illegal move code " + code);
+	}
+
+	private long offset(int game) {
+		if (game < 0 || game >= size) {
+			throw new IndexOutOfBoundsException("Game " + game + " of " + size);
+		}
+		long position = 8L * game;
+		return index.window(position).getLong(MappedFile.local(position));
+	}
+
+	private static String string(ByteBuffer buffer, int p) {
+		int length = buffer.get(p) & 0xFF;
+		byte[] bytes = new byte[length];
+		buffer.get(p + 1, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,129 @@
+package chess.db;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.pgn.PgnGame;
+import chess.pgn.SanParser;
+
+public class GameDatabaseWriter implements Closeable {
+
+	// Acrescenta partidas ao banco (formato em GameDatabase). O registro é gravado antes do seu deslocamento
+	// no índice, então uma gravação interrompida nunca deixa o índice apontando para dados incompletos.
+	// append é sincronizado: várias threads (ex.: as de PgnIngest) podem gravar no mesmo banco.
+
+	private final FileChannel data;
+	private final FileChannel index;
+	private final ByteBuffer entry = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+	private ByteBuffer record = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+	private long dataSize;
+	private int count;
+
+	public GameDatabaseWriter(Path base) throws IOException {
+		data = FileChannel.open(GameDatabase.dataFile(base), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+		index = FileChannel.open(GameDatabase.indexFile(base), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+		count = (int) (index.size() / 8);
+		index.truncate(count * 8L);											// Descarta um deslocamento incompleto de uma gravação interrompida.
+		if (count == 0) {
+			ByteBuffer header = ByteBuffer.allocate(GameDatabase.FILE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(GameDatabase.MAGIC).putInt(GameDatabase.VERSION).flip();
+			data.truncate(0);
+			writeFully(data, header, 0);
+			dataSize = GameDatabase.FILE_HEADER_BYTES;
+		}
+		else {
+			dataSize = data.size();
+		}
+		index.position(count * 8L);
+	}
+
+	public int size() {
+		return count;
+	}
+
+	public int append(PgnGame game) {										// Converte a partida (SAN) e grava; ChessException se algum lance for ilegal.
+		String fen = game.getTags().get("FEN");
+		ChessMatch match = (fen != null) ? ChessMatch.fromFen(fen) : new ChessMatch();
+		int[] moves = new int[Math.max(1, game.getMoves().size())];
+		int[] buffer = new int[256];
+		int n = 0;
+		for (String san : game.getMoves()) {
+			moves[n] = SanParser.parse(match, san, buffer);
+			match.makeMove(moves[n++]);
+		}
+		GameHeader header = new GameHeader(game.getTags().getOrDefault("White", "?"), game.getTags().getOrDefault("Black", "?"),
+				game.getTags().getOrDefault("Date", "????.??.??"), GameHeader.result(game.getResult()), fen, n);
+		return append(header, moves, n);
+	}
+
+	public synchronized int append(GameHeader header, int[] moves, int moveCount) {	// Retorna o número da partida no banco.
+		if (moveCount > 0xFFFF) {
+			throw new ChessException("Game too long for the database: " + moveCount + " moves");
+		}
+		int capacity = 4 + 4 * 256 + 2 * moveCount;
+		if (record.capacity() < capacity) {
+			record = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+		}
+		record.clear();
+		record.putShort((short) moveCount);
+		record.put((byte) header.getResult());
+		record.put((byte) ((header.getFen() != null) ? GameDatabase.HAS_FEN : 0));
+		putString(header.getWhite());
+		putString(header.getBlack());
+		putString(header.getDate());
+		if (header.getFen() != null) {
+			putString(header.getFen());
+		}
+		for (int i = 0; i < moveCount; i++) {
+			record.putShort((short) GameDatabase.encode(moves[i]));
+		}
+		record.flip();
+		try {
+			long offset = dataSize;
+			writeFully(data, record, offset);
+			dataSize += record.limit();
+			entry.clear();
+			entry.putLong(offset).flip();
+			writeFully(index, entry, count * 8L);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Could not write game", e);
+		}
+		return count++;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		data.truncate(dataSize);
+		data.close();
+		index.close();
+	}
+
+	private void putString(String s) {										// u8 tamanho + UTF-8, cortado em 255 bytes sem partir um caractere.
+		byte[] bytes = (s != null) ? s.getBytes(StandardCharsets.UTF_8) : new byte[0];
+		if (bytes.length > 255) {
+			int length = 255;
+			while ((bytes[length] & 0xC0) == 0x80) {						// bytes[length] é continuação: o caractere começa antes do corte.
+				length--;
+			}
+			bytes = Arrays.copyOf(bytes, length);
+		}
+		record.put((byte) bytes.length).put(bytes);
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package chess.db;
+
+public class GameHeader {
+
+	// Cabeçalho de uma partida do banco: jogadores, data, resultado, posição inicial (FEN, se não for a padrão)
+	// e o número de lances.
+
+	public static final int UNKNOWN = 0;
+	public static final int WHITE_WINS = 1;
+	public static final int BLACK_WINS = 2;
+	public static final int DRAW = 3;
+
+	private String white;
+	private String black;
+	private String date;
+	private int result;
+	private String fen;
+	private int moveCount;
+
+	public GameHeader(String white, String black, String date, int result, String fen, int moveCount) {
+		this.white = white;
+		this.black = black;
+		this.date = date;
+		this.result = result;
+		this.fen = fen;
+		this.moveCount = moveCount;
+	}
+
+	public static int result(String pgnResult) {		// Resultado no formato do PGN (1-0, 0-1, 1/2-1/2, *).
+		switch (pgnResult) {
+		case "1-0": return WHITE_WINS;
+		case "0-1": return BLACK_WINS;
+		case "1/2-1/2": return DRAW;
+		default: return UNKNOWN;
+		}
+	}
+
+	public String getWhite() {
+		return white;
+	}
+
+	public String getBlack() {
+		return black;
+	}
+
+	public String getDate() {
+		return date;
+	}
+
+	public int getResult() {
+		return result;
+	}
+
+	public String getFen() {							// null quando a partida começa da posição inicial.
+		return fen;
+	}
+
+	public int getMoveCount() {
+		return moveCount;
+	}
+
+	@Override
+	public String toString() {
+		String[] results = { "*", "1-0", "0-1", "1/2-1/2" };
+		return white + " - " + black + " (" + date + ") " + results[result] + ", " + moveCount + " moves";
+	}
+}
@@ -0,0 +1,48 @@
+package chess.db;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+final class MappedFile {
+
+	// Arquivo somente leitura mapeado em memória em janelas de 1 GB (um MappedByteBuffer é indexado por int).
+	// Janelas vizinhas se sobrepõem em OVERLAP bytes, então qualquer registro de até OVERLAP bytes cabe inteiro
+	// na janela onde começa e pode ser lido sem cópia, qualquer que seja o tamanho do arquivo.
+
+	static final int OVERLAP = 1 << 18;
+
+	private static final int WINDOW_SHIFT = 30;
+	private static final long WINDOW = 1L << WINDOW_SHIFT;
+
+	private final ByteBuffer[] windows;
+	private final long size;
+
+	MappedFile(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			size = channel.size();
+			int count = (int) Math.max(1, (size + WINDOW - 1) >>> WINDOW_SHIFT);
+			windows = new ByteBuffer[count];
+			for (int i = 0; i < count; i++) {
+				long start = i * WINDOW;
+				long length = Math.min(size - start, WINDOW + OVERLAP);
+				windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.max(0, length)).order(ByteOrder.LITTLE_ENDIAN);
+			}
+		}
+	}
+
+	long size() {
+		return size;
+	}
+
+	ByteBuffer window(long offset) {					// Janela que contém o registro que começa em offset...
+		return windows[(int) (offset >>> WINDOW_SHIFT)];
+	}
+
+	static int local(long offset) {						// ...e a posição dele dentro da janela.
+		return (int) (offset & (WINDOW - 1));
+	}
+}
@@ -0,0 +1,105 @@
+package chess.db;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+public class PositionIndex {
+
+	// Índice das posições do banco de partidas: tabela ordenada de (ChessMatch.getCanonicalKey(), partida e lance)
+	// gravada por PositionIndexBuilder e consultada por busca binária direto no arquivo mapeado em memória,
+	// em O(log n) acessos, sem carregar o índice na heap.
+	// Arquivo (little-endian): MAGIC, VERSION, número de entradas (long) e as entradas de 16 bytes:
+	// chave (long, em ordem sem sinal) e valor (long: partida << 16 | ply). Chaves iguais vêm ordenadas pelo valor.
+
+	static final int MAGIC = 0x58444950;					// "PIDX"
+	static final int VERSION = 2;							// 2: chaves canônicas (en passant só quando a captura é possível).
+	static final int HEADER_BYTES = 16;
+	static final int ENTRY_BYTES = 16;
+
+	private final MappedFile file;
+	private final long size;
+
+	private PositionIndex(Path path) throws IOException {
+		file = new MappedFile(path);
+		ByteBuffer header = file.window(0);
+		if (file.size() < HEADER_BYTES || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+			throw new IOException("Not a position index (version " + VERSION + "): " + path);
+		}
+		size = header.getLong(8);
+	}
+
+	public static PositionIndex open(Path path) throws IOException {
+		return new PositionIndex(path);
+	}
+
+	public long size() {								// Número de posições indexadas (com repetições).
+		return size;
+	}
+
+	public long count(long positionKey) {				// Quantas vezes a posição (getCanonicalKey()) ocorre nas partidas do banco.
+		return upperBound(positionKey) - lowerBound(positionKey);
+	}
+
+	public long[] find(long positionKey, int limit) {	// Até 'limit' ocorrências da posição (ver game() e ply()), em ordem de partida.
+		long first = lowerBound(positionKey);
+		int n = (int) Math.min(limit, upperBound(positionKey) - first);
+		long[] hits = new long[n];
+		for (int i = 0; i < n; i++) {
+			hits[i] = value(first + i);
+		}
+		return hits;
+	}
+
+	public static int game(long hit) {
+		return (int) (hit >>> 16);
+	}
+
+	public static int ply(long hit) {					// Número de lances já feitos na partida quando a posição ocorreu.
+		return (int) (hit & 0xFFFF);
+	}
+
+	static long value(int game, int ply) {
+		return ((long) game << 16) | ply;
+	}
+
+	private long lowerBound(long positionKey) {			// Primeira entrada com chave >= positionKey.
+		long low = 0;
+		long high = size;
+		while (low < high) {
+			long mid = (low + high) >>> 1;
+			if (Long.compareUnsigned(key(mid), positionKey) < 0) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private long upperBound(long positionKey) {			// Primeira entrada com chave > positionKey.
+		long low = 0;
+		long high = size;
+		while (low < high) {
+			long mid = (low + high) >>> 1;
+			if (Long.compareUnsigned(key(mid), positionKey) <= 0) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private long key(long entry) {
+		long position = HEADER_BYTES + entry * ENTRY_BYTES;
+		return file.window(position).getLong(MappedFile.local(position));
+	}
+
+	private long value(long entry) {
+		long position = HEADER_BYTES + entry * ENTRY_BYTES + 8;
+		return file.window(position).getLong(MappedFile.local(position));
+	}
+}
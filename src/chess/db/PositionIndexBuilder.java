@@ -0,0 +1,257 @@
+package chess.db;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class PositionIndexBuilder {
+
+	// Gera o PositionIndex de um banco de partidas por ordenação externa em paralelo:
+	// 1. N threads reproduzem blocos de partidas e acumulam (hash, partida << 16 | ply) em buffers de tamanho fixo;
+	//    cada buffer cheio é ordenado (radix sort pelos 64 bits da chave) e gravado como um arquivo temporário ("run").
+	// 2. A thread que chama intercala os runs (k-way merge) direto no arquivo final.
+	// A memória usada é fixa (threads * runEntries * 32 bytes), qualquer que seja o tamanho do banco.
+
+	public static final int DEFAULT_RUN_ENTRIES = 1 << 22;			// 128 MB por thread (chaves, valores e cópias do radix sort).
+
+	private static final int GAMES_PER_BLOCK = 256;					// Partidas entregues de cada vez a uma thread.
+	private static final int MAX_POSITIONS = 65536 + 1;				// Uma partida tem até 65535 lances (u16 no banco).
+	private static final int IO_BUFFER = 1 << 16;
+
+	private PositionIndexBuilder() {
+	}
+
+	public static long build(GameDatabase db, Path output, int threads) throws IOException {
+		Path parent = output.toAbsolutePath().getParent();
+		return build(db, output, threads, DEFAULT_RUN_ENTRIES, parent);
+	}
+
+	public static long build(GameDatabase db, Path output, int threads, int runEntries, Path tempDir) throws IOException {
+		int workers = Math.max(1, threads);							// Retorna o número de posições indexadas.
+		int capacity = Math.max(runEntries, MAX_POSITIONS);
+		AtomicInteger nextBlock = new AtomicInteger();
+		List<Path> runs = Collections.synchronizedList(new ArrayList<>());
+		ExecutorService pool = Executors.newFixedThreadPool(workers);
+		try {
+			List<Future<?>> tasks = new ArrayList<>();
+			for (int i = 0; i < workers; i++) {
+				tasks.add(pool.submit(() -> sortRuns(db, capacity, tempDir, nextBlock, runs)));
+			}
+			for (Future<?> task : tasks) {
+				await(task);
+			}
+			return merge(runs, output);
+		}
+		finally {
+			pool.shutdownNow();
+			for (Path run : runs) {
+				Files.deleteIfExists(run);
+			}
+		}
+	}
+
+	private static void sortRuns(GameDatabase db, int capacity, Path tempDir, AtomicInteger nextBlock, List<Path> runs) {
+		long[] keys = new long[capacity];
+		long[] values = new long[capacity];
+		long[] keyBuffer = new long[capacity];
+		long[] valueBuffer = new long[capacity];
+		long[] positions = new long[MAX_POSITIONS];
+		int count = 0;
+		try {
+			for (int block = nextBlock.getAndIncrement(); (long) block * GAMES_PER_BLOCK < db.size(); block = nextBlock.getAndIncrement()) {
+				int end = (int) Math.min(db.size(), (long) (block + 1) * GAMES_PER_BLOCK);
+				for (int game = block * GAMES_PER_BLOCK; game < end; game++) {
+					int n = db.positionKeys(game, positions);
+					if (count + n > capacity) {
+						runs.add(writeRun(keys, values, keyBuffer, valueBuffer, count, tempDir));
+						count = 0;
+					}
+					for (int ply = 0; ply < n; ply++) {
+						keys[count] = positions[ply];
+						values[count++] = PositionIndex.value(game, ply);
+					}
+				}
+			}
+			if (count > 0) {
+				runs.add(writeRun(keys, values, keyBuffer, valueBuffer, count, tempDir));
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static Path writeRun(long[] keys, long[] values, long[] keyBuffer, long[] valueBuffer, int count, Path tempDir) throws IOException {
+		radixSort(keys, values, keyBuffer, valueBuffer, count);
+		Path run = Files.createTempFile(tempDir, "positions", ".run");
+		try (FileChannel channel = FileChannel.open(run, StandardOpenOption.WRITE)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+			for (int i = 0; i < count; i++) {
+				if (buffer.remaining() < PositionIndex.ENTRY_BYTES) {
+					drain(channel, buffer);
+				}
+				buffer.putLong(keys[i]).putLong(values[i]);
+			}
+			drain(channel, buffer);
+		}
+		return run;
+	}
+
+	static void radixSort(long[] keys, long[] values, long[] keyBuffer, long[] valueBuffer, int count) {
+		// LSD em 4 passadas de 16 bits; estável, então chaves iguais mantêm a ordem de inserção (partida e ply crescentes).
+		// Cada dígito é tratado sem sinal, o que dá a mesma ordem de Long.compareUnsigned usada na consulta.
+		int[] offsets = new int[1 << 16];
+		long[] fromKeys = keys;
+		long[] fromValues = values;
+		long[] toKeys = keyBuffer;
+		long[] toValues = valueBuffer;
+		for (int shift = 0; shift < 64; shift += 16) {
+			Arrays.fill(offsets, 0);
+			for (int i = 0; i < count; i++) {
+				offsets[(int) (fromKeys[i] >>> shift) & 0xFFFF]++;
+			}
+			int sum = 0;
+			for (int d = 0; d < offsets.length; d++) {
+				int c = offsets[d];
+				offsets[d] = sum;
+				sum += c;
+			}
+			for (int i = 0; i < count; i++) {
+				int d = (int) (fromKeys[i] >>> shift) & 0xFFFF;
+				int target = offsets[d]++;
+				toKeys[target] = fromKeys[i];
+				toValues[target] = fromValues[i];
+			}
+			long[] swap = fromKeys;
+			fromKeys = toKeys;
+			toKeys = swap;
+			swap = fromValues;
+			fromValues = toValues;
+			toValues = swap;
+		}															// Número par de passadas: o resultado termina nos arrays originais.
+	}
+
+	private static long merge(List<Path> runs, Path output) throws IOException {
+		PriorityQueue<RunReader> queue = new PriorityQueue<>();
+		long count = 0;
+		try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			try {
+				for (Path run : runs) {
+					RunReader reader = new RunReader(run);
+					if (reader.advance()) {
+						queue.add(reader);
+					}
+					else {
+						reader.close();
+					}
+				}
+				ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+				out.position(PositionIndex.HEADER_BYTES);
+				while (!queue.isEmpty()) {
+					RunReader reader = queue.poll();
+					if (buffer.remaining() < PositionIndex.ENTRY_BYTES) {
+						drain(out, buffer);
+					}
+					buffer.putLong(reader.key).putLong(reader.value);
+					count++;
+					if (reader.advance()) {
+						queue.add(reader);
+					}
+					else {
+						reader.close();
+					}
+				}
+				drain(out, buffer);
+			}
+			finally {
+				for (RunReader reader : queue) {
+					reader.close();
+				}
+			}
+			ByteBuffer header = ByteBuffer.allocate(PositionIndex.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(PositionIndex.MAGIC).putInt(PositionIndex.VERSION).putLong(count);
+			out.position(0);												// O cabeçalho só é gravado no fim: um índice incompleto não abre.
+			drain(out, header);
+		}
+		return count;
+	}
+
+	private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	private static void await(Future<?> task) throws IOException {
+		try {
+			task.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Position index build interrupted", e);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof UncheckedIOException) {
+				throw ((UncheckedIOException) e.getCause()).getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+	}
+
+	private static class RunReader implements Comparable<RunReader> {	// Leitura sequencial de um run, uma entrada à frente.
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+		long key;
+		long value;
+
+		RunReader(Path run) throws IOException {
+			channel = FileChannel.open(run, StandardOpenOption.READ);
+			buffer.flip();
+		}
+
+		boolean advance() throws IOException {
+			if (buffer.remaining() < PositionIndex.ENTRY_BYTES) {
+				buffer.compact();
+				while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+				}
+				buffer.flip();
+				if (buffer.remaining() < PositionIndex.ENTRY_BYTES) {
+					return false;
+				}
+			}
+			key = buffer.getLong();
+			value = buffer.getLong();
+			return true;
+		}
+
+		void close() throws IOException {
+			channel.close();
+		}
+
+		@Override
+		public int compareTo(RunReader other) {
+			int c = Long.compareUnsigned(key, other.key);
+			return (c != 0) ? c : Long.compare(value, other.value);
+		}
+	}
+}
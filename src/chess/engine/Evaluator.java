@@ -0,0 +1,8 @@
+package chess.engine;
+
+import chess.ChessMatch;
+
+public interface Evaluator {
+
+	int evaluate(ChessMatch match);		// Avaliação estática em centipeões, do ponto de vista do jogador da vez.
+}
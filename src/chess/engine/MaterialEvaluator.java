@@ -0,0 +1,20 @@
+package chess.engine;
+
+import chess.ChessMatch;
+import chess.Color;
+import chess.PieceType;
+
+public class MaterialEvaluator implements Evaluator {
+
+	public static final int[] PIECE_VALUES = { 100, 320, 330, 500, 900, 0 };		// Indexado por PieceType.ordinal().
+
+	@Override
+	public int evaluate(ChessMatch match) {
+		int score = 0;
+		for (PieceType type : PieceType.values()) {
+			score += PIECE_VALUES[type.ordinal()]
+					* (Long.bitCount(match.bitboard(Color.WHITE, type)) - Long.bitCount(match.bitboard(Color.BLACK, type)));
+		}
+		return (match.getCurrentPlayer() == Color.WHITE) ? score : -score;
+	}
+}
@@ -0,0 +1,56 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessPiece;
+
+class MoveOrdering {
+
+	// Heurísticas de ordenação aprendidas durante a busca, uma instância por Search (e portanto por thread):
+	//   killers: dois lances quietos que causaram corte beta em cada ply (costumam refutar as posições irmãs);
+	//   history: pontuação por peça (índice do bitboard) e casa de destino dos lances quietos que causaram corte.
+
+	private static final int HISTORY_LIMIT = 1 << 20;
+
+	private final int[][] killers = new int[Search.MAX_PLY + 1][2];
+	private final int[][] history = new int[12][64];
+
+	void newSearch() {												// Mantém o que foi aprendido, mas dá mais peso ao que vier da nova busca.
+		for (int[] row : killers) {
+			row[0] = 0;
+			row[1] = 0;
+		}
+		for (int[] row : history) {
+			for (int i = 0; i < row.length; i++) {
+				row[i] /= 2;
+			}
+		}
+	}
+
+	boolean isKiller(int move, int ply) {
+		return move == killers[ply][0] || move == killers[ply][1];
+	}
+
+	int killer(int ply, int slot) {
+		return killers[ply][slot];
+	}
+
+	int history(ChessPiece piece, int to) {
+		return history[ChessBoard.index(piece.getColor(), piece.getType())][to];
+	}
+
+	void cutoff(ChessPiece piece, int move, int to, int depth, int ply) {		// Lance quieto que causou corte beta.
+		if (killers[ply][0] != move) {
+			killers[ply][1] = killers[ply][0];
+			killers[ply][0] = move;
+		}
+		int[] row = history[ChessBoard.index(piece.getColor(), piece.getType())];
+		row[to] += depth * depth;
+		if (row[to] >= HISTORY_LIMIT) {
+			for (int[] r : history) {
+				for (int i = 0; i < r.length; i++) {
+					r[i] /= 2;
+				}
+			}
+		}
+	}
+}
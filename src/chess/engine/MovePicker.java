@@ -0,0 +1,103 @@
+package chess.engine;
+
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.Move;
+import chess.PieceType;
+
+class MovePicker {
+
+	// Entrega os lances legais de uma posição em etapas, do mais promissor para o menos:
+	//   1. o lance da tabela de transposição;
+	//   2. capturas que não perdem material (SEE >= 0) e promoções a dama, pela ordem MVV-LVA;
+	//   3. os dois killers do ply;
+	//   4. lances quietos, pela pontuação de history;
+	//   5. capturas perdedoras e subpromoções.
+	// As etapas são faixas de pontuação; a seleção é preguiçosa (o melhor restante a cada next()),
+	// então um corte beta no primeiro lance não paga a ordenação do resto. Um picker por ply, sem alocação.
+
+	static final int END = -1;
+
+	private static final int TT_MOVE = 1 << 30;
+	private static final int GOOD_CAPTURE = 1 << 28;
+	private static final int KILLER = 1 << 27;
+	private static final int BAD_CAPTURE = -(1 << 28);
+
+	private final int[] moves = new int[256];
+	private final int[] scores = new int[256];
+	private int count;
+	private int index;
+	private int legal;
+
+	void init(ChessMatch match, MoveOrdering ordering, int ttMove, int ply) {	// Todos os lances (busca principal e evasões de xeque).
+		count = match.legalMoves(moves);
+		legal = count;
+		index = 0;
+		for (int i = 0; i < count; i++) {
+			int move = moves[i];
+			if (move == ttMove) {
+				scores[i] = TT_MOVE;
+			}
+			else if (match.isCapture(move) || Move.promotion(move) != null) {
+				scores[i] = captureScore(match, move);
+			}
+			else if (ordering.isKiller(move, ply)) {
+				scores[i] = (move == ordering.killer(ply, 0)) ? KILLER + 1 : KILLER;
+			}
+			else {
+				scores[i] = ordering.history(match.pieceAt(Move.from(move)), Move.to(move));
+			}
+		}
+	}
+
+	void initCaptures(ChessMatch match) {										// Só capturas e promoções que não perdem material (quiescência).
+		legal = match.legalMoves(moves);
+		count = 0;
+		index = 0;
+		for (int i = 0; i < legal; i++) {
+			int move = moves[i];
+			if (match.isCapture(move) || Move.promotion(move) != null) {
+				int score = captureScore(match, move);
+				if (score >= GOOD_CAPTURE) {
+					moves[count] = move;
+					scores[count++] = score;
+				}
+			}
+		}
+	}
+
+	int legalCount() {															// Total de lances legais da posição, mesmo os descartados por initCaptures.
+		return legal;
+	}
+
+	int next() {
+		if (index == count) {
+			return END;
+		}
+		int best = index;
+		for (int i = index + 1; i < count; i++) {
+			if (scores[i] > scores[best]) {
+				best = i;
+			}
+		}
+		int move = moves[best];
+		moves[best] = moves[index];
+		scores[best] = scores[index];
+		moves[index++] = move;
+		return move;
+	}
+
+	private static int captureScore(ChessMatch match, int move) {				// MVV-LVA: a vítima mais valiosa primeiro e, entre iguais, o atacante mais barato.
+		ChessPiece victim = match.pieceAt(Move.to(move));
+		PieceType promotion = Move.promotion(move);
+		int victimRank = (victim != null) ? victim.getType().ordinal() : 0;		// En passant captura um peão; promoção simples não captura nada.
+		int mvvLva = (victimRank + 1) * 8 - match.pieceAt(Move.from(move)).getType().ordinal();
+		if (promotion != null && promotion != PieceType.QUEEN) {
+			return BAD_CAPTURE + mvvLva;
+		}
+		if (promotion != null) {
+			mvvLva += 64;
+		}
+		return (match.staticExchange(move) >= 0) ? GOOD_CAPTURE + mvvLva : BAD_CAPTURE + mvvLva;
+	}
+}
@@ -0,0 +1,79 @@
+package chess.engine;
+
+import java.nio.ByteBuffer;
+
+import chess.ChessBoard;
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.Color;
+import chess.PieceListener;
+
+public class NnueEvaluator implements Evaluator, PieceListener {
+
+	// Avaliador por rede neural (ver NnueNetwork) com acumulador incremental: na primeira avaliação ele se
+	// registra como PieceListener da partida e calcula os acumuladores do zero; depois, cada peça colocada ou
+	// removida em makeMove/undoMove soma ou subtrai uma linha de pesos (O(H)), e avaliar é só a camada de saída.
+	// Há um acumulador por perspectiva: as brancas veem o tabuleiro como está, as pretas espelhado e com as cores trocadas.
+	// Um avaliador acompanha uma partida por vez, e não é thread-safe: um por thread de busca.
+
+	private final NnueNetwork network;
+	private final NnueKernel kernel;
+	private final ByteBuffer weights;
+	private final int[] whiteAccumulator;
+	private final int[] blackAccumulator;
+	private ChessMatch attached;
+
+	public NnueEvaluator(NnueNetwork network) {
+		this.network = network;
+		kernel = NnueKernel.create();
+		weights = network.weights();
+		whiteAccumulator = new int[network.getHidden()];
+		blackAccumulator = new int[network.getHidden()];
+	}
+
+	public boolean isVectorized() {
+		return kernel instanceof VectorNnueKernel;
+	}
+
+	@Override
+	public int evaluate(ChessMatch match) {
+		if (match != attached) {
+			attach(match);
+		}
+		boolean white = match.getCurrentPlayer() == Color.WHITE;
+		int sum = kernel.dot(white ? whiteAccumulator : blackAccumulator, network.getClip(), weights, network.outputOffset(0))
+				+ kernel.dot(white ? blackAccumulator : whiteAccumulator, network.getClip(), weights, network.outputOffset(1))
+				+ weights.getInt(network.outputBiasOffset());
+		return sum / network.getScale();
+	}
+
+	@Override
+	public void piecePlaced(int index, int square) {
+		kernel.add(whiteAccumulator, weights, network.featureOffset(index * 64 + square));
+		kernel.add(blackAccumulator, weights, network.featureOffset(((index + 6) % 12) * 64 + (square ^ 56)));
+	}
+
+	@Override
+	public void pieceRemoved(int index, int square) {
+		kernel.subtract(whiteAccumulator, weights, network.featureOffset(index * 64 + square));
+		kernel.subtract(blackAccumulator, weights, network.featureOffset(((index + 6) % 12) * 64 + (square ^ 56)));
+	}
+
+	private void attach(ChessMatch match) {							// Recalcula os acumuladores do zero a partir das peças da partida.
+		if (attached != null) {
+			attached.setPieceListener(null);
+		}
+		for (int i = 0; i < whiteAccumulator.length; i++) {
+			whiteAccumulator[i] = weights.getInt(network.biasOffset() + 4 * i);
+			blackAccumulator[i] = whiteAccumulator[i];
+		}
+		for (int square = 0; square < 64; square++) {
+			ChessPiece piece = match.pieceAt(square);
+			if (piece != null) {
+				piecePlaced(ChessBoard.index(piece.getColor(), piece.getType()), square);
+			}
+		}
+		match.setPieceListener(this);
+		attached = match;
+	}
+}
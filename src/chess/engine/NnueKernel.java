@@ -0,0 +1,28 @@
+package chess.engine;
+
+import java.nio.ByteBuffer;
+
+interface NnueKernel {
+
+	// Operações vetoriais da rede: somar/subtrair a linha de pesos de uma entrada ao acumulador e o
+	// produto escalar da camada de saída com a ReLU limitada. Há uma implementação escalar, sempre disponível,
+	// e uma com a Vector API (SIMD), usada quando o módulo jdk.incubator.vector foi carregado pela JVM.
+
+	void add(int[] accumulator, ByteBuffer weights, int offset);
+
+	void subtract(int[] accumulator, ByteBuffer weights, int offset);
+
+	int dot(int[] accumulator, int clip, ByteBuffer weights, int offset);	// Soma de clamp(acc[i], 0, clip) * w[i].
+
+	static NnueKernel create() {
+		if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+			try {																// Carregada por nome: sem o módulo, a classe nunca é ligada.
+				return (NnueKernel) Class.forName("chess.engine.VectorNnueKernel").getDeclaredConstructor().newInstance();
+			}
+			catch (ReflectiveOperationException | LinkageError e) {
+				// Sem suporte utilizável: segue com a versão escalar.
+			}
+		}
+		return new ScalarNnueKernel();
+	}
+}
@@ -0,0 +1,102 @@
+package chess.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class NnueNetwork {
+
+	// Pesos de uma rede no estilo NNUE, mapeados do arquivo direto para a memória (sem cópia para a heap).
+	// Arquitetura: 768 entradas (12 tipos de peça x 64 casas, vistas por cada lado) -> camada oculta de H neurônios
+	// por perspectiva (o acumulador) -> ReLU limitada a [0, clip] -> uma saída a partir das duas perspectivas.
+	// Formato (inteiros de 32 bits, little-endian):
+	//   cabeçalho de 8 ints: MAGIC, VERSION, H, clip, scale e 3 reservados;
+	//   featureWeights[768 * H] (H pesos por entrada, contíguos), featureBias[H],
+	//   outputWeights[2 * H] (primeiro a perspectiva de quem joga), outputBias.
+	// Avaliação em centipeões = (soma da camada de saída + outputBias) / scale.
+
+	public static final int MAGIC = 0x45554E43;					// "CNUE"
+	public static final int VERSION = 1;
+	public static final int INPUTS = 768;
+
+	private static final int HEADER_BYTES = 32;
+
+	private final ByteBuffer weights;
+	private final int hidden;
+	private final int clip;
+	private final int scale;
+
+	private NnueNetwork(ByteBuffer weights) {
+		this.weights = weights.order(ByteOrder.LITTLE_ENDIAN);
+		if (this.weights.getInt(0) != MAGIC || this.weights.getInt(4) != VERSION) {
+			throw new IllegalArgumentException("Not a network file (version " + VERSION + ")");
+		}
+		hidden = this.weights.getInt(8);
+		clip = this.weights.getInt(12);
+		scale = this.weights.getInt(16);
+		long expected = HEADER_BYTES + 4L * (INPUTS * (long) hidden + hidden + 2L * hidden + 1);
+		if (hidden <= 0 || scale <= 0 || this.weights.capacity() < expected) {
+			throw new IllegalArgumentException("Invalid network header or truncated file");
+		}
+	}
+
+	public static NnueNetwork load(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());	// O mapeamento continua válido após fechar o canal.
+			return new NnueNetwork(buffer);
+		}
+	}
+
+	public static void write(Path file, int hidden, int clip, int scale, int[] featureWeights, int[] featureBias, int[] outputWeights,
+			int outputBias) throws IOException {													// Grava uma rede no formato acima (ex.: exportada do treino).
+		if (featureWeights.length != INPUTS * hidden || featureBias.length != hidden || outputWeights.length != 2 * hidden) {
+			throw new IllegalArgumentException("Weight arrays do not match the hidden layer size");
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 4 * (featureWeights.length + featureBias.length + outputWeights.length + 1))
+				.order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(hidden).putInt(clip).putInt(scale).putInt(0).putInt(0).putInt(0);
+		buffer.asIntBuffer().put(featureWeights).put(featureBias).put(outputWeights).put(outputBias);
+		buffer.rewind();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	public int getHidden() {
+		return hidden;
+	}
+
+	public int getClip() {
+		return clip;
+	}
+
+	public int getScale() {
+		return scale;
+	}
+
+	ByteBuffer weights() {									// Visão própria do buffer (posição e ordem independentes), uma por avaliador.
+		return weights.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	int featureOffset(int feature) {						// Deslocamento em bytes dos H pesos de uma entrada.
+		return HEADER_BYTES + 4 * feature * hidden;
+	}
+
+	int biasOffset() {
+		return featureOffset(INPUTS);
+	}
+
+	int outputOffset(int perspective) {						// 0 = quem joga, 1 = o adversário.
+		return biasOffset() + 4 * hidden * (1 + perspective);
+	}
+
+	int outputBiasOffset() {
+		return outputOffset(2);
+	}
+}
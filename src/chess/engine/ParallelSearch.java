@@ -0,0 +1,111 @@
+package chess.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import chess.ChessMatch;
+import chess.tablebase.Tablebases;
+
+public class ParallelSearch {
+
+	// Busca paralela no estilo Lazy SMP: N threads buscam a mesma posição raiz, cada uma com a sua cópia
+	// da partida e o seu avaliador, compartilhando uma única tabela de transposição. As threads auxiliares
+	// começam em profundidades escalonadas, e o que cada uma grava na tabela acelera (e reordena) as outras.
+	// A thread principal decide quando parar; ao terminar, as auxiliares são interrompidas.
+
+	private final int threads;
+	private final TranspositionTable table;
+	private final Supplier<Evaluator> evaluators;
+	private final ExecutorService executor;
+	private volatile List<Search> running = new ArrayList<>();
+	private volatile Tablebases tablebases;
+
+	public ParallelSearch(int threads, TranspositionTable table) {
+		this(threads, table, PieceSquareEvaluator::new);
+	}
+
+	public ParallelSearch(int threads, TranspositionTable table, Supplier<Evaluator> evaluators) {
+		this.threads = Math.max(1, threads);
+		this.table = table;
+		this.evaluators = evaluators;
+		executor = Executors.newFixedThreadPool(this.threads, r -> {
+			Thread t = new Thread(r, "search-worker");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public void setTablebases(Tablebases tablebases) {								// Vale a partir da próxima busca (null desliga).
+		this.tablebases = tablebases;
+	}
+
+	public SearchResult search(ChessMatch match, SearchLimits limits) {
+		table.newSearch();
+		List<Search> searches = new ArrayList<>(threads);
+		for (int i = 0; i < threads; i++) {
+			Search search = new Search(match.copy(), evaluators.get(), table);
+			search.setTablebases(tablebases);
+			searches.add(search);
+		}
+		running = searches;
+		long start = System.nanoTime();
+
+		List<Future<SearchResult>> helpers = new ArrayList<>();
+		for (int i = 1; i < threads; i++) {
+			Search helper = searches.get(i);
+			int startDepth = 1 + (i & 1);											// Metade das auxiliares começa uma profundidade à frente.
+			SearchLimits helperLimits = new SearchLimits(0, 0, limits.getTimeMillis());	// Só o tempo: o fim é decidido pela principal.
+			helpers.add(executor.submit(() -> helper.search(helperLimits, startDepth)));
+		}
+		SearchResult best = searches.get(0).search(limits, 1);							// A thread que chamou é a principal.
+		for (Search helper : searches.subList(1, threads)) {
+			helper.stop();
+		}
+
+		long nodes = best.getNodes();
+		for (Future<SearchResult> future : helpers) {
+			SearchResult result = await(future);
+			nodes += result.getNodes();
+			if (result.getDepth() > best.getDepth() && result.getBestMove() != -1) {	// Uma auxiliar que completou uma profundidade maior tem o resultado mais confiável.
+				best = result;
+			}
+		}
+		running = new ArrayList<>();
+		long elapsed = (System.nanoTime() - start) / 1_000_000L;
+		return new SearchResult(best.getBestMove(), best.getScore(), best.getDepth(), nodes, elapsed);
+	}
+
+	public boolean stop() {														// Interrompe todas as threads da busca em andamento.
+		List<Search> searches = running;											// Retorna false se nenhuma busca tinha começado ainda.
+		for (Search search : searches) {
+			search.stop();
+		}
+		return !searches.isEmpty();
+	}
+
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private static SearchResult await(Future<SearchResult> future) {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Search interrupted", e);
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException("Search worker failed", e.getCause());
+		}
+	}
+}
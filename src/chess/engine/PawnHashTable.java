@@ -0,0 +1,54 @@
+package chess.engine;
+
+public class PawnHashTable {
+
+	// Cache da avaliação da estrutura de peões, indexado por ChessMatch.getPawnKey().
+	// A estrutura muda pouco entre nós irmãos da busca, então quase toda consulta acerta.
+	// Tamanho fixo (potência de 2) em arrays primitivos, sempre substituindo; uma tabela por avaliador (e por thread).
+
+	private final long[] keys;
+	private final int[] middlegame;
+	private final int[] endgame;
+	private final int mask;
+	private long probes;
+	private long hits;
+
+	public PawnHashTable(int entries) {
+		int size = Integer.highestOneBit(Math.max(1, entries));
+		keys = new long[size];
+		middlegame = new int[size];
+		endgame = new int[size];
+		mask = size - 1;
+	}
+
+	public int index(long pawnKey) {					// Posição da entrada da estrutura; a entrada só é válida se contains() confirmar.
+		return (int) pawnKey & mask;
+	}
+
+	public boolean contains(long pawnKey, int index) {
+		probes++;
+		if (keys[index] == pawnKey) {
+			hits++;
+			return true;
+		}
+		return false;
+	}
+
+	public void store(int index, long pawnKey, int middlegameScore, int endgameScore) {
+		keys[index] = pawnKey;
+		middlegame[index] = middlegameScore;
+		endgame[index] = endgameScore;
+	}
+
+	public int middlegame(int index) {
+		return middlegame[index];
+	}
+
+	public int endgame(int index) {
+		return endgame[index];
+	}
+
+	public double hitRate() {
+		return (probes == 0) ? 0.0 : (double) hits / probes;
+	}
+}
@@ -0,0 +1,90 @@
+package chess.engine;
+
+import chess.ChessMatch;
+import chess.Color;
+import chess.PieceType;
+
+final class PawnStructure {
+
+	// Termos da estrutura de peões (positivos: vantagem das brancas), em meio-jogo e final:
+	// peões dobrados e isolados, peões passados pelo avanço e escudo de peões à frente do rei.
+	// Só dependem dos peões e dos reis, por isso são guardados em PawnHashTable pela chave getPawnKey().
+
+	private static final int DOUBLED_MG = -10;
+	private static final int DOUBLED_EG = -20;
+	private static final int ISOLATED_MG = -10;
+	private static final int ISOLATED_EG = -15;
+	private static final int[] PASSED_MG = { 0, 5, 10, 20, 35, 60, 100, 0 };	// Pelo avanço relativo (1 = casa inicial, 6 = uma casa da promoção).
+	private static final int[] PASSED_EG = { 0, 10, 20, 40, 70, 120, 200, 0 };
+	private static final int SHIELD_MG = 10;									// Por peão próprio nas duas fileiras à frente do rei (rei roqueado ou na última fileira).
+
+	private static final Color[] COLORS = Color.values();
+	private static final long[] FILES = new long[8];
+	private static final long[] ADJACENT_FILES = new long[8];
+	private static final long[][] PASSED_SPAN = new long[2][64];				// Casas à frente do peão, na coluna e nas vizinhas: sem peões adversários ali, o peão é passado.
+	private static final long[][] SHIELD = new long[2][64];
+
+	static {
+		for (int column = 0; column < 8; column++) {
+			FILES[column] = 0x0101010101010101L << column;
+		}
+		for (int column = 0; column < 8; column++) {
+			ADJACENT_FILES[column] = ((column > 0) ? FILES[column - 1] : 0L) | ((column < 7) ? FILES[column + 1] : 0L);
+		}
+		for (int sq = 0; sq < 64; sq++) {
+			int row = sq / 8;
+			long span = FILES[sq % 8] | ADJACENT_FILES[sq % 8];
+			long above = (row == 0) ? 0L : -1L >>> (64 - row * 8);					// Linhas 0..row-1: à frente das brancas.
+			long below = (row == 7) ? 0L : -1L << ((row + 1) * 8);					// Linhas row+1..7: à frente das pretas.
+			PASSED_SPAN[Color.WHITE.ordinal()][sq] = span & above;
+			PASSED_SPAN[Color.BLACK.ordinal()][sq] = span & below;
+			long twoAbove = (row <= 2) ? above : above & ~(-1L >>> (64 - (row - 2) * 8));
+			long twoBelow = (row >= 5) ? below : below & ~(-1L << ((row + 3) * 8));
+			SHIELD[Color.WHITE.ordinal()][sq] = (row >= 6) ? span & twoAbove : 0L;
+			SHIELD[Color.BLACK.ordinal()][sq] = (row <= 1) ? span & twoBelow : 0L;
+		}
+	}
+
+	private PawnStructure() {
+	}
+
+	static void evaluate(ChessMatch match, PawnHashTable table, int index, long pawnKey) {
+		long whitePawns = match.bitboard(Color.WHITE, PieceType.PAWN);
+		long blackPawns = match.bitboard(Color.BLACK, PieceType.PAWN);
+		int middlegame = 0;
+		int endgame = 0;
+		for (Color color : COLORS) {
+			long own = (color == Color.WHITE) ? whitePawns : blackPawns;
+			long enemy = (color == Color.WHITE) ? blackPawns : whitePawns;
+			int sign = (color == Color.WHITE) ? 1 : -1;
+			int mg = 0;
+			int eg = 0;
+			for (int column = 0; column < 8; column++) {
+				int count = Long.bitCount(own & FILES[column]);
+				if (count > 1) {
+					mg += DOUBLED_MG * (count - 1);
+					eg += DOUBLED_EG * (count - 1);
+				}
+				if (count > 0 && (own & ADJACENT_FILES[column]) == 0) {
+					mg += ISOLATED_MG * count;
+					eg += ISOLATED_EG * count;
+				}
+			}
+			long pawns = own;
+			while (pawns != 0) {
+				int sq = Long.numberOfTrailingZeros(pawns);
+				pawns &= pawns - 1;
+				if ((PASSED_SPAN[color.ordinal()][sq] & enemy) == 0 && (PASSED_SPAN[color.ordinal()][sq] & own & FILES[sq % 8]) == 0) {	// Só o peão da frente de uma dobrada conta.
+					int advance = (color == Color.WHITE) ? 7 - sq / 8 : sq / 8;
+					mg += PASSED_MG[advance];
+					eg += PASSED_EG[advance];
+				}
+			}
+			int king = Long.numberOfTrailingZeros(match.bitboard(color, PieceType.KING));
+			mg += SHIELD_MG * Long.bitCount(SHIELD[color.ordinal()][king] & own);
+			middlegame += sign * mg;
+			endgame += sign * eg;
+		}
+		table.store(index, pawnKey, middlegame, endgame);
+	}
+}
@@ -0,0 +1,40 @@
+package chess.engine;
+
+import chess.ChessMatch;
+import chess.Color;
+import chess.PieceSquareTables;
+
+public class PieceSquareEvaluator implements Evaluator {
+
+	// Avaliação por material e tabelas de posição, mais a estrutura de peões, interpolada entre o meio-jogo
+	// e o final pela fase da partida. Os termos de posição já vêm somados pelo tabuleiro a cada peça colocada
+	// ou removida, e os de peões vêm do cache: na grande maioria dos nós, avaliar é O(1) e não aloca.
+
+	private final PawnHashTable pawnTable;
+
+	public PieceSquareEvaluator() {
+		this(new PawnHashTable(1 << 16));
+	}
+
+	public PieceSquareEvaluator(PawnHashTable pawnTable) {		// A tabela não é sincronizada: um avaliador por thread.
+		this.pawnTable = pawnTable;
+	}
+
+	public PawnHashTable getPawnTable() {
+		return pawnTable;
+	}
+
+	@Override
+	public int evaluate(ChessMatch match) {
+		long pawnKey = match.getPawnKey();
+		int index = pawnTable.index(pawnKey);
+		if (!pawnTable.contains(pawnKey, index)) {
+			PawnStructure.evaluate(match, pawnTable, index, pawnKey);
+		}
+		int middlegame = match.getMiddlegameScore() + pawnTable.middlegame(index);
+		int endgame = match.getEndgameScore() + pawnTable.endgame(index);
+		int phase = Math.min(match.getGamePhase(), PieceSquareTables.MAX_PHASE);		// Promoções podem passar do máximo.
+		int score = (middlegame * phase + endgame * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE;
+		return (match.getCurrentPlayer() == Color.WHITE) ? score : -score;
+	}
+}
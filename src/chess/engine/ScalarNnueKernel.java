@@ -0,0 +1,29 @@
+package chess.engine;
+
+import java.nio.ByteBuffer;
+
+class ScalarNnueKernel implements NnueKernel {
+
+	@Override
+	public void add(int[] accumulator, ByteBuffer weights, int offset) {
+		for (int i = 0; i < accumulator.length; i++) {
+			accumulator[i] += weights.getInt(offset + 4 * i);
+		}
+	}
+
+	@Override
+	public void subtract(int[] accumulator, ByteBuffer weights, int offset) {
+		for (int i = 0; i < accumulator.length; i++) {
+			accumulator[i] -= weights.getInt(offset + 4 * i);
+		}
+	}
+
+	@Override
+	public int dot(int[] accumulator, int clip, ByteBuffer weights, int offset) {
+		int sum = 0;
+		for (int i = 0; i < accumulator.length; i++) {
+			sum += Math.min(Math.max(accumulator[i], 0), clip) * weights.getInt(offset + 4 * i);
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,279 @@
+package chess.engine;
+
+import chess.ChessMatch;
+import chess.Move;
+import chess.tablebase.Tablebases;
+
+public class Search {
+
+	// Busca negamax com poda alfa-beta, aprofundamento iterativo e busca de quiescência.
+	// Trabalha diretamente sobre a partida com makeMove(int)/undoMove(): ao terminar, a posição é a mesma do início.
+
+	public static final int MAX_PLY = 128;
+	public static final int MATE = 30000;				// Mate em n lances vale MATE - n (do ponto de vista de quem dá o mate).
+	public static final int INFINITY = 32000;
+
+	private static final int CHECK_INTERVAL = 2047;		// Frequência (em nós) da verificação do tempo.
+
+	private final ChessMatch match;
+	private final Evaluator evaluator;
+	private final TranspositionTable table;
+	private final MovePicker[] pickers = new MovePicker[MAX_PLY + 1];
+	private final MoveOrdering ordering = new MoveOrdering();				// Killers e history desta busca (uma instância por thread).
+	private Tablebases tablebases;
+
+	private long nodes;
+	private long nodeLimit;
+	private long deadline;
+	private boolean aborted;
+	private volatile boolean stopRequested;
+
+	public Search(ChessMatch match) {
+		this(match, new PieceSquareEvaluator());
+	}
+
+	public Search(ChessMatch match, Evaluator evaluator) {
+		this(match, evaluator, new TranspositionTable(16));
+	}
+
+	public Search(ChessMatch match, Evaluator evaluator, TranspositionTable table) {	// A mesma tabela pode ser compartilhada por várias buscas (e threads).
+		this.match = match;
+		this.evaluator = evaluator;
+		this.table = table;
+		for (int i = 0; i < pickers.length; i++) {
+			pickers[i] = new MovePicker();
+		}
+	}
+
+	public void setTablebases(Tablebases tablebases) {					// Tabelas de finais consultadas nos nós com poucas peças (null desliga).
+		this.tablebases = tablebases;
+	}
+
+	public void stop() {								// Pede a interrupção da busca em andamento (pode ser chamado de outra thread).
+		stopRequested = true;							// O pedido vale até o fim da próxima busca, mesmo que ela ainda não tenha começado.
+	}
+
+	public SearchResult search(SearchLimits limits) {
+		table.newSearch();
+		return search(limits, 1);
+	}
+
+	SearchResult search(SearchLimits limits, int startDepth) {		// Sem avançar a geração da tabela; startDepth > 1 é usado pelas threads auxiliares do Lazy SMP.
+		try {
+			return iterativeDeepening(limits, startDepth);
+		}
+		finally {
+			stopRequested = false;
+		}
+	}
+
+	private SearchResult iterativeDeepening(SearchLimits limits, int startDepth) {
+		long start = System.nanoTime();
+		nodes = 0;
+		aborted = false;
+		ordering.newSearch();
+		nodeLimit = (limits.getNodes() > 0) ? limits.getNodes() : Long.MAX_VALUE;
+		deadline = (limits.getTimeMillis() > 0) ? start + limits.getTimeMillis() * 1_000_000L : Long.MAX_VALUE;
+		int maxDepth = (limits.getDepth() > 0) ? Math.min(limits.getDepth(), MAX_PLY) : MAX_PLY;
+
+		int[] rootMoves = new int[256];
+		int count = match.legalMoves(rootMoves);
+		if (count == 0) {
+			return new SearchResult(-1, match.getCheck() ? -MATE : 0, 0, 0, 0);
+		}
+
+		int bestMove = rootMoves[0];
+		int bestScore = -INFINITY;
+		int completedDepth = 0;
+		for (int depth = Math.min(startDepth, maxDepth); depth <= maxDepth; depth++) {
+			int alpha = -INFINITY;
+			int iterationBest = -1;
+			for (int i = 0; i < count; i++) {
+				match.makeMove(rootMoves[i]);
+				int score = -negamax(depth - 1, -INFINITY, -alpha, 1);
+				match.undoMove();
+				if (aborted) {
+					break;
+				}
+				if (score > alpha) {
+					alpha = score;
+					iterationBest = i;
+				}
+			}
+			if (aborted) {
+				if (iterationBest != -1 && alpha > bestScore) {				// Um lance melhor já encontrado na iteração interrompida ainda é aproveitável.
+					bestMove = rootMoves[iterationBest];
+					bestScore = alpha;
+				}
+				break;
+			}
+			bestMove = rootMoves[iterationBest];
+			bestScore = alpha;
+			completedDepth = depth;
+			table.store(match.getPositionKey(), bestMove, bestScore, depth, TranspositionTable.EXACT);
+			int first = rootMoves[0];											// O melhor lance da iteração é o primeiro a ser buscado na próxima.
+			rootMoves[0] = rootMoves[iterationBest];
+			rootMoves[iterationBest] = first;
+			if (Math.abs(bestScore) >= MATE - MAX_PLY) {						// Mate encontrado: aprofundar não muda o resultado.
+				break;
+			}
+		}
+		if (bestScore == -INFINITY) {														// Interrompida antes de avaliar qualquer lance.
+			bestScore = evaluator.evaluate(match);
+		}
+		return new SearchResult(bestMove, bestScore, completedDepth, nodes, (System.nanoTime() - start) / 1_000_000L);
+	}
+
+	private int negamax(int depth, int alpha, int beta, int ply) {
+		if (match.isRepetition() || match.getHalfmoveClock() >= 100) {
+			return 0;
+		}
+		boolean inCheck = match.getCheck();
+		if (inCheck && ply < MAX_PLY) {											// Extensão de xeque: não termina a busca no meio de uma sequência forçada.
+			depth++;
+		}
+		if (depth <= 0 || ply >= MAX_PLY) {
+			return quiescence(alpha, beta, ply);
+		}
+		if (countNode()) {
+			return 0;
+		}
+		if (tablebases != null) {													// Final nas tabelas: resultado exato, sem buscar.
+			int result = tablebases.probe(match);
+			if (result != Tablebases.UNKNOWN) {
+				if (result == Tablebases.DRAW) {
+					return 0;
+				}
+				int plies = ply + Tablebases.distance(result);
+				return Tablebases.isWin(result) ? MATE - plies : -MATE + plies;
+			}
+		}
+
+		long key = match.getPositionKey();
+		long entry = table.probe(key);
+		int ttMove = 0;
+		if (entry != 0) {
+			ttMove = TranspositionTable.move(entry);
+			if (TranspositionTable.depth(entry) >= depth) {
+				int score = fromTable(TranspositionTable.score(entry), ply);
+				int bound = TranspositionTable.bound(entry);
+				if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER && score >= beta)
+						|| (bound == TranspositionTable.UPPER && score <= alpha)) {
+					return score;
+				}
+			}
+		}
+
+		MovePicker picker = pickers[ply];
+		picker.init(match, ordering, ttMove, ply);
+		if (picker.legalCount() == 0) {
+			return inCheck ? -MATE + ply : 0;
+		}
+		int originalAlpha = alpha;
+		int best = -INFINITY;
+		int bestMove = 0;
+		for (int move = picker.next(); move != MovePicker.END; move = picker.next()) {
+			match.makeMove(move);
+			int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+			match.undoMove();
+			if (aborted) {
+				return 0;
+			}
+			if (score > best) {
+				best = score;
+				bestMove = move;
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta) {
+						if (!match.isCapture(move) && Move.promotion(move) == null) {
+							ordering.cutoff(match.pieceAt(Move.from(move)), move, Move.to(move), depth, ply);
+						}
+						break;
+					}
+				}
+			}
+		}
+		int bound = (best >= beta) ? TranspositionTable.LOWER : (best > originalAlpha) ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+		table.store(key, (bound == TranspositionTable.UPPER) ? 0 : bestMove, toTable(best, ply), depth, bound);
+		return best;
+	}
+
+	private static int toTable(int score, int ply) {							// Scores de mate são guardados relativos ao nó, não à raiz.
+		if (score >= MATE - MAX_PLY) {
+			return score + ply;
+		}
+		if (score <= -MATE + MAX_PLY) {
+			return score - ply;
+		}
+		return score;
+	}
+
+	private static int fromTable(int score, int ply) {
+		if (score >= MATE - MAX_PLY) {
+			return score - ply;
+		}
+		if (score <= -MATE + MAX_PLY) {
+			return score + ply;
+		}
+		return score;
+	}
+
+	private int quiescence(int alpha, int beta, int ply) {						// Estende a busca só com capturas e promoções até a posição ficar "quieta".
+		if (countNode()) {
+			return 0;
+		}
+		if (ply >= MAX_PLY) {
+			return evaluator.evaluate(match);
+		}
+		boolean inCheck = match.getCheck();
+		int best = -INFINITY;
+		if (!inCheck) {															// Fora de xeque, o jogador pode simplesmente não capturar (stand pat).
+			best = evaluator.evaluate(match);
+			if (best >= beta) {
+				return best;
+			}
+			if (best > alpha) {
+				alpha = best;
+			}
+		}
+		MovePicker picker = pickers[ply];
+		if (inCheck) {																// Em xeque, todas as evasões são buscadas.
+			picker.init(match, ordering, 0, ply);
+		}
+		else {																		// Fora de xeque, só as trocas que não perdem material (SEE).
+			picker.initCaptures(match);
+		}
+		if (picker.legalCount() == 0) {
+			return inCheck ? -MATE + ply : 0;
+		}
+		for (int move = picker.next(); move != MovePicker.END; move = picker.next()) {
+			match.makeMove(move);
+			int score = -quiescence(-beta, -alpha, ply + 1);
+			match.undoMove();
+			if (aborted) {
+				return 0;
+			}
+			if (score > best) {
+				best = score;
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta) {
+						break;
+					}
+				}
+			}
+		}
+		return best;
+	}
+
+	private boolean countNode() {												// Conta o nó e verifica os limites de nós, de tempo e o pedido de parada.
+		nodes++;
+		if (nodes >= nodeLimit) {
+			aborted = true;
+		}
+		else if (stopRequested || ((nodes & CHECK_INTERVAL) == 0 && System.nanoTime() >= deadline)) {	// O pedido de parada é só uma leitura volátil: visto a cada nó.
+			aborted = true;
+		}
+		return aborted;
+	}
+}
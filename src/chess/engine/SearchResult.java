@@ -0,0 +1,46 @@
+package chess.engine;
+
+import chess.Move;
+
+public class SearchResult {
+
+	private int bestMove;
+	private int score;
+	private int depth;
+	private long nodes;
+	private long timeMillis;
+
+	public SearchResult(int bestMove, int score, int depth, long nodes, long timeMillis) {
+		this.bestMove = bestMove;
+		this.score = score;
+		this.depth = depth;
+		this.nodes = nodes;
+		this.timeMillis = timeMillis;
+	}
+
+	public int getBestMove() {					// Lance empacotado (ver Move), ou -1 se a posição não tem lances legais.
+		return bestMove;
+	}
+
+	public int getScore() {
+		return score;
+	}
+
+	public int getDepth() {						// Última profundidade completada pelo aprofundamento iterativo.
+		return depth;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	public long getTimeMillis() {
+		return timeMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "depth " + depth + " score " + score + " nodes " + nodes + " time " + timeMillis + " bestmove "
+				+ (bestMove == -1 ? "(none)" : Move.toString(bestMove));
+	}
+}
@@ -0,0 +1,119 @@
+package chess.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+public class TranspositionTable {
+
+	// Tabela de transposição de tamanho fixo, indexada pelo hash Zobrist de 64 bits da posição.
+	// Cada entrada ocupa dois longs: (chave ^ dados) e dados, com os dados empacotados em um único long:
+	//   bits 0-16 = melhor lance (0 = nenhum), bits 17-32 = score + 32768, bits 33-40 = profundidade,
+	//   bits 41-42 = tipo do limite, bits 43-48 = geração (idade da busca).
+	// Threads leem e escrevem sem travas: uma entrada rasgada por escritas concorrentes não confere no XOR
+	// e é tratada como ausente. Cada bucket tem duas entradas: uma que prefere a maior profundidade
+	// (ou uma busca mais nova) e uma que é sempre substituída.
+
+	public static final int EXACT = 0;
+	public static final int LOWER = 1;				// O score é um limite inferior (houve corte beta).
+	public static final int UPPER = 2;				// O score é um limite superior (nenhum lance superou alfa).
+
+	private static final int LONGS_PER_BUCKET = 4;
+
+	private final LongBuffer entries;				// Na heap (long[]) ou fora dela (ByteBuffer direto), conforme o construtor.
+	private final int bucketMask;
+	private volatile int generation;
+
+	public TranspositionTable(int megabytes) {
+		this(megabytes, false);
+	}
+
+	public TranspositionTable(int megabytes, boolean offHeap) {
+		long buckets = Long.highestOneBit(Math.max(1L, megabytes * 1024L * 1024L / (LONGS_PER_BUCKET * 8)));
+		buckets = Math.min(buckets, offHeap ? (1 << 25) : (1 << 28));		// ByteBuffer.allocateDirect e arrays são indexados por int.
+		int size = (int) buckets * LONGS_PER_BUCKET;
+		if (offHeap) {
+			entries = ByteBuffer.allocateDirect(size * 8).order(ByteOrder.nativeOrder()).asLongBuffer();
+		}
+		else {
+			entries = LongBuffer.wrap(new long[size]);
+		}
+		bucketMask = (int) buckets - 1;
+	}
+
+	public void newSearch() {						// Avança a geração: entradas de buscas anteriores passam a ser substituídas primeiro.
+		generation = (generation + 1) & 63;
+	}
+
+	public void clear() {
+		for (int i = 0; i < entries.capacity(); i++) {
+			entries.put(i, 0L);
+		}
+	}
+
+	public long probe(long key) {					// Retorna os dados da entrada da posição, ou 0 se não houver.
+		int index = index(key);
+		for (int i = index; i < index + LONGS_PER_BUCKET; i += 2) {
+			long data = entries.get(i + 1);
+			if ((entries.get(i) ^ data) == key && data != 0) {
+				return data;
+			}
+		}
+		return 0L;
+	}
+
+	public void store(long key, int move, int score, int depth, int bound) {
+		int index = index(key);
+		long previous = entries.get(index + 1);
+		boolean sameKey = (entries.get(index) ^ previous) == key;
+		if (move == 0 && sameKey) {												// Não perde o melhor lance já conhecido da posição.
+			move = move(previous);
+		}
+		long data = (move & 0x1FFFFL) | ((long) (score + 32768) << 17) | ((long) Math.max(depth, 0) << 33)
+				| ((long) bound << 41) | ((long) generation << 43);
+		if (sameKey || previous == 0 || depth >= depth(previous) || generation(previous) != generation) {
+			entries.put(index, key ^ data);
+			entries.put(index + 1, data);
+		}
+		else {
+			entries.put(index + 2, key ^ data);
+			entries.put(index + 3, data);
+		}
+	}
+
+	public int hashfull() {							// Ocupação por mil, estimada pelos primeiros 1000 buckets da busca atual (comando UCI).
+		int used = 0;
+		int samples = Math.min(1000, bucketMask + 1);
+		for (int i = 0; i < samples; i++) {
+			long data = entries.get(i * LONGS_PER_BUCKET + 1);
+			if (data != 0 && generation(data) == generation) {
+				used++;
+			}
+		}
+		return used * 1000 / samples;
+	}
+
+	public static int move(long data) {
+		return (int) (data & 0x1FFFFL);
+	}
+
+	public static int score(long data) {
+		return (int) ((data >>> 17) & 0xFFFF) - 32768;
+	}
+
+	public static int depth(long data) {
+		return (int) ((data >>> 33) & 0xFF);
+	}
+
+	public static int bound(long data) {
+		return (int) ((data >>> 41) & 3);
+	}
+
+	private static int generation(long data) {
+		return (int) ((data >>> 43) & 63);
+	}
+
+	private int index(long key) {
+		return ((int) (key >>> 32) & bucketMask) * LONGS_PER_BUCKET;
+	}
+}
@@ -0,0 +1,60 @@
+package chess.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+class VectorNnueKernel implements NnueKernel {
+
+	// Versão SIMD com a Vector API: usa a maior largura de vetor da CPU (SSE/AVX2/AVX-512 ou NEON)
+	// e lê os pesos direto do buffer mapeado. A sobra que não completa um vetor vai pelo laço escalar.
+
+	private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+	@Override
+	public void add(int[] accumulator, ByteBuffer weights, int offset) {
+		int bound = SPECIES.loopBound(accumulator.length);
+		int i = 0;
+		for (; i < bound; i += SPECIES.length()) {
+			IntVector.fromArray(SPECIES, accumulator, i)
+					.add(IntVector.fromByteBuffer(SPECIES, weights, offset + 4 * i, ByteOrder.LITTLE_ENDIAN))
+					.intoArray(accumulator, i);
+		}
+		for (; i < accumulator.length; i++) {
+			accumulator[i] += weights.getInt(offset + 4 * i);
+		}
+	}
+
+	@Override
+	public void subtract(int[] accumulator, ByteBuffer weights, int offset) {
+		int bound = SPECIES.loopBound(accumulator.length);
+		int i = 0;
+		for (; i < bound; i += SPECIES.length()) {
+			IntVector.fromArray(SPECIES, accumulator, i)
+					.sub(IntVector.fromByteBuffer(SPECIES, weights, offset + 4 * i, ByteOrder.LITTLE_ENDIAN))
+					.intoArray(accumulator, i);
+		}
+		for (; i < accumulator.length; i++) {
+			accumulator[i] -= weights.getInt(offset + 4 * i);
+		}
+	}
+
+	@Override
+	public int dot(int[] accumulator, int clip, ByteBuffer weights, int offset) {
+		int bound = SPECIES.loopBound(accumulator.length);
+		IntVector sum = IntVector.zero(SPECIES);
+		int i = 0;
+		for (; i < bound; i += SPECIES.length()) {
+			IntVector activation = IntVector.fromArray(SPECIES, accumulator, i).max(0).min(clip);
+			sum = sum.add(activation.mul(IntVector.fromByteBuffer(SPECIES, weights, offset + 4 * i, ByteOrder.LITTLE_ENDIAN)));
+		}
+		int result = sum.reduceLanes(VectorOperators.ADD);
+		for (; i < accumulator.length; i++) {
+			result += Math.min(Math.max(accumulator[i], 0), clip) * weights.getInt(offset + 4 * i);
+		}
+		return result;
+	}
+}
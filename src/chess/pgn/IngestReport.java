@@ -0,0 +1,56 @@
+package chess.pgn;
+
+import java.util.List;
+
+public class IngestReport {
+
+	private long games;
+	private long valid;
+	private long moves;
+	private long skipped;
+	private long timeMillis;
+	private List<String> errors;
+
+	public IngestReport(long games, long valid, long moves, long skipped, long timeMillis, List<String> errors) {
+		this.games = games;
+		this.valid = valid;
+		this.moves = moves;
+		this.skipped = skipped;
+		this.timeMillis = timeMillis;
+		this.errors = errors;
+	}
+
+	public long getGames() {
+		return games;
+	}
+
+	public long getValid() {
+		return valid;
+	}
+
+	public long getInvalid() {
+		return games - valid;
+	}
+
+	public long getMoves() {					// Lances reproduzidos nas partidas válidas.
+		return moves;
+	}
+
+	public long getSkipped() {					// Partidas grandes demais, descartadas pelo leitor.
+		return skipped;
+	}
+
+	public long getTimeMillis() {
+		return timeMillis;
+	}
+
+	public List<String> getErrors() {			// Primeiros erros encontrados (limitado), com o número da partida.
+		return errors;
+	}
+
+	@Override
+	public String toString() {
+		return games + " games (" + valid + " valid, " + getInvalid() + " invalid, " + skipped + " skipped), " + moves + " moves, "
+				+ timeMillis + " ms";
+	}
+}
@@ -0,0 +1,132 @@
+package chess.pgn;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.ChessPosition;
+import chess.Move;
+import chess.PieceType;
+
+public class PgnGame {
+
+	// Uma partida de um arquivo PGN: as tags ([Event "..."]) e os lances em SAN da linha principal.
+	// Comentários ({...} e ;), variantes entre parênteses, NAGs ($n) e números de lance são descartados.
+
+	private final Map<String, String> tags;
+	private final List<String> moves;
+	private final String result;
+
+	public PgnGame(Map<String, String> tags, List<String> moves, String result) {
+		this.tags = tags;
+		this.moves = moves;
+		this.result = result;
+	}
+
+	public static PgnGame parse(String text) {
+		Map<String, String> tags = new LinkedHashMap<>();
+		List<String> moves = new ArrayList<>();
+		String result = "*";
+		int i = 0;
+		int n = text.length();
+		int variationDepth = 0;
+		while (i < n) {
+			char c = text.charAt(i);
+			if (c == '{') {																// Comentário até a chave de fechamento.
+				int end = text.indexOf('}', i);
+				i = (end < 0) ? n : end + 1;
+			}
+			else if (c == ';') {														// Comentário até o fim da linha.
+				int end = text.indexOf('\n', i);
+				i = (end < 0) ? n : end + 1;
+			}
+			else if (c == '(') {
+				variationDepth++;
+				i++;
+			}
+			else if (c == ')') {
+				variationDepth = Math.max(0, variationDepth - 1);
+				i++;
+			}
+			else if (c == '[' && variationDepth == 0) {
+				int end = text.indexOf(']', i);
+				if (end < 0) {
+					throw new ChessException("Unterminated PGN tag");
+				}
+				parseTag(text.substring(i + 1, end), tags);
+				i = end + 1;
+			}
+			else if (Character.isWhitespace(c)) {
+				i++;
+			}
+			else {
+				int start = i;
+				while (i < n && !Character.isWhitespace(text.charAt(i)) && "{}();[".indexOf(text.charAt(i)) < 0) {
+					i++;
+				}
+				String token = text.substring(start, i);
+				if (variationDepth > 0 || token.startsWith("$")) {
+					continue;
+				}
+				if (token.equals("1-0") || token.equals("0-1") || token.equals("1/2-1/2") || token.equals("*")) {
+					result = token;
+					continue;
+				}
+				int dot = token.lastIndexOf('.');										// "12." "12..." ou "12.e4" (número grudado no lance).
+				if (dot >= 0) {
+					token = token.substring(dot + 1);
+				}
+				if (!token.isEmpty() && !Character.isDigit(token.charAt(0))) {
+					moves.add(token);
+				}
+			}
+		}
+		return new PgnGame(tags, moves, result);
+	}
+
+	private static void parseTag(String tag, Map<String, String> tags) {
+		int space = tag.indexOf(' ');
+		int open = tag.indexOf('"');
+		int close = tag.lastIndexOf('"');
+		if (space > 0 && open > space && close > open) {
+			tags.put(tag.substring(0, space), tag.substring(open + 1, close).replace("\\\"", "\"").replace("\\\\", "\\"));
+		}
+	}
+
+	public Map<String, String> getTags() {
+		return tags;
+	}
+
+	public List<String> getMoves() {
+		return moves;
+	}
+
+	public String getResult() {
+		return result;
+	}
+
+	public ChessMatch replay() {														// Reproduz a partida com performChessMove, validando cada lance.
+		String fen = tags.get("FEN");													// Lança ChessException no primeiro lance ilegal.
+		ChessMatch match = (fen != null) ? ChessMatch.fromFen(fen) : new ChessMatch();
+		int[] buffer = new int[256];
+		for (String san : moves) {
+			if (match.getCheckMate() || match.getStalemate()) {
+				throw new ChessException("Move after the end of the game: " + san);
+			}
+			int move = SanParser.parse(match, san, buffer);
+			match.performChessMove(position(Move.from(move)), position(Move.to(move)));
+			PieceType promotion = Move.promotion(move);
+			if (promotion != null && promotion != PieceType.QUEEN) {					// performChessMove promove a dama; a SAN pode pedir outra peça.
+				match.replacePromotedPiece(String.valueOf("PNBRQK".charAt(promotion.ordinal())));
+			}
+		}
+		return match;
+	}
+
+	private static ChessPosition position(int square) {
+		return new ChessPosition((char) ('a' + square % 8), 8 - square / 8);
+	}
+}
@@ -0,0 +1,119 @@
+package chess.pgn;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+import chess.ChessMatch;
+
+public final class PgnIngest {
+
+	// Valida um arquivo PGN em paralelo: a thread que chama lê e separa as partidas (PgnReader) e as entrega
+	// por uma fila limitada a N threads, que reproduzem cada partida no ChessMatch (PgnGame.replay()).
+	// Quando as threads ficam para trás, a fila cheia segura a leitura: a memória não depende do tamanho do arquivo.
+
+	private static final int MAX_ERRORS = 100;
+	private static final QueuedGame END = new QueuedGame(0, null);		// Marca de fim da fila, uma por thread.
+
+	private PgnIngest() {
+	}
+
+	public static IngestReport ingest(Path file, int threads) throws IOException {
+		return ingest(file, threads, null);
+	}
+
+	public static IngestReport ingest(Path file, int threads, BiConsumer<PgnGame, ChessMatch> onValidGame) throws IOException {
+		long start = System.nanoTime();							// onValidGame (opcional) é chamado pelas threads de validação.
+		int workers = Math.max(1, threads);
+		BlockingQueue<QueuedGame> queue = new ArrayBlockingQueue<>(workers * 16);
+		LongAdder valid = new LongAdder();
+		LongAdder moves = new LongAdder();
+		List<String> errors = Collections.synchronizedList(new ArrayList<>());
+		ExecutorService pool = Executors.newFixedThreadPool(workers);
+		for (int i = 0; i < workers; i++) {
+			pool.execute(() -> validate(queue, valid, moves, errors, onValidGame));
+		}
+
+		long games = 0;
+		long skipped;
+		try (PgnReader reader = new PgnReader(file)) {
+			for (String text = reader.nextGame(); text != null; text = reader.nextGame()) {
+				put(queue, new QueuedGame(++games, text));
+			}
+			skipped = reader.getSkipped();
+		}
+		finally {
+			for (int i = 0; i < workers; i++) {
+				put(queue, END);
+			}
+			pool.shutdown();
+			try {
+				pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		return new IngestReport(games, valid.sum(), moves.sum(), skipped, (System.nanoTime() - start) / 1_000_000L, new ArrayList<>(errors));
+	}
+
+	private static void validate(BlockingQueue<QueuedGame> queue, LongAdder valid, LongAdder moves, List<String> errors,
+			BiConsumer<PgnGame, ChessMatch> onValidGame) {
+		while (true) {
+			QueuedGame item;
+			try {
+				item = queue.take();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			if (item == END) {
+				return;
+			}
+			try {
+				PgnGame game = PgnGame.parse(item.text);
+				ChessMatch match = game.replay();
+				valid.increment();
+				moves.add(game.getMoves().size());
+				if (onValidGame != null) {
+					onValidGame.accept(game, match);
+				}
+			}
+			catch (RuntimeException e) {
+				if (errors.size() < MAX_ERRORS) {
+					errors.add("game " + item.number + ": " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	private static void put(BlockingQueue<QueuedGame> queue, QueuedGame item) {
+		try {
+			queue.put(item);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("PGN ingest interrupted", e);
+		}
+	}
+
+	private static class QueuedGame {
+		final long number;								// Posição da partida no arquivo (1, 2, ...), para as mensagens de erro.
+		final String text;
+
+		QueuedGame(long number, String text) {
+			this.number = number;
+			this.text = text;
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package chess.pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class PgnReader implements Closeable {
+
+	// Leitura em blocos de um arquivo PGN de qualquer tamanho, separando as partidas: uma nova partida começa
+	// na primeira linha de tag ([...]) depois dos lances da anterior, fora de comentários ({...} e ;). A memória usada é o bloco de leitura mais
+	// o texto de uma partida; partidas maiores que o limite são descartadas (e contadas) em vez de crescer sem fim.
+
+	private static final int CHUNK_BYTES = 1 << 20;
+
+	private final FileChannel channel;
+	private final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_BYTES);
+	private final int maxGameBytes;
+	private byte[] game = new byte[8192];
+	private int gameLength;
+	private boolean oversized;
+	private boolean inMoves;							// A parte de lances da partida atual já começou.
+	private boolean lineStart = true;
+	private int braceDepth;								// Profundidade de comentários {...} abertos nos lances (um [%clk ...] quebrado em linha fica dentro).
+	private boolean lineComment;						// Comentário de ';' até o fim da linha.
+	private boolean endOfFile;
+	private long skipped;
+
+	public PgnReader(Path file) throws IOException {
+		this(file, 1 << 20);
+	}
+
+	public PgnReader(Path file, int maxGameBytes) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		this.maxGameBytes = maxGameBytes;
+		chunk.flip();
+	}
+
+	public String nextGame() throws IOException {		// Texto da próxima partida, ou null no fim do arquivo.
+		while (true) {
+			if (!chunk.hasRemaining()) {
+				if (endOfFile) {
+					return null;
+				}
+				chunk.clear();
+				int read = channel.read(chunk);
+				chunk.flip();
+				if (read < 0) {
+					endOfFile = true;
+					String last = take();
+					if (last != null) {
+						return last;
+					}
+					continue;
+				}
+			}
+			byte b = chunk.get();
+			if (lineStart && b == '[' && inMoves && braceDepth == 0 && !lineComment) {
+				String text = take();
+				append(b);
+				lineStart = false;
+				if (text != null) {
+					return text;
+				}
+				continue;
+			}
+			if (lineStart && b != '[' && b != '%' && b > ' ') {		// Linhas com % são comentários de escape do formato.
+				inMoves = true;
+			}
+			if (inMoves) {
+				comment(b);
+			}
+			append(b);
+			lineStart = b == '\n';
+		}
+	}
+
+	public long getSkipped() {							// Partidas descartadas por passarem do limite de tamanho.
+		return skipped;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private void comment(byte b) {
+		if (lineComment) {
+			lineComment = b != '\n';
+		}
+		else if (b == '{') {
+			braceDepth++;
+		}
+		else if (b == '}' && braceDepth > 0) {
+			braceDepth--;
+		}
+		else if (b == ';' && braceDepth == 0) {
+			lineComment = true;
+		}
+	}
+
+	private void append(byte b) {
+		if (oversized) {
+			return;
+		}
+		if (gameLength == game.length) {
+			if (game.length >= maxGameBytes) {
+				oversized = true;
+				return;
+			}
+			game = Arrays.copyOf(game, Math.min(game.length * 2, maxGameBytes));
+		}
+		game[gameLength++] = b;
+	}
+
+	private String take() {								// Fecha a partida atual e começa uma nova.
+		String text = null;
+		if (oversized) {
+			skipped++;
+		}
+		else if (inMoves || gameLength > 0) {
+			text = new String(game, 0, gameLength, StandardCharsets.UTF_8);
+		}
+		gameLength = 0;
+		oversized = false;
+		inMoves = false;
+		braceDepth = 0;
+		lineComment = false;
+		return (text != null && !text.isBlank()) ? text : null;
+	}
+}
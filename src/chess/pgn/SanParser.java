@@ -0,0 +1,113 @@
+package chess.pgn;
+
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.Move;
+import chess.PieceType;
+
+public final class SanParser {
+
+	// Converte um lance em notação algébrica padrão (SAN: e4, Nbd7, exd6, O-O-O, e8=Q+, R1a3) no lance
+	// empacotado correspondente (ver Move), procurando-o entre os lances legais da posição.
+
+	private static final String PIECES = "PNBRQK";				// Letras da SAN por PieceType.ordinal().
+
+	private SanParser() {
+	}
+
+	public static int parse(ChessMatch match, String san) {
+		return parse(match, san, new int[256]);
+	}
+
+	public static int parse(ChessMatch match, String san, int[] buffer) {		// buffer: lances legais da posição (reaproveitado pelo chamador).
+		String s = stripSuffixes(san);
+		int count = match.legalMoves(buffer);
+		if (s.equals("O-O") || s.equals("0-0") || s.equals("O-O-O") || s.equals("0-0-0")) {
+			boolean kingside = s.length() == 3;
+			for (int i = 0; i < count; i++) {
+				int move = buffer[i];
+				if (Move.isCastling(move) && (Move.to(move) > Move.from(move)) == kingside) {
+					return move;
+				}
+			}
+			throw new ChessException("Illegal castling: " + san);
+		}
+
+		PieceType promotion = null;
+		int equals = s.indexOf('=');
+		if (equals >= 0 && equals + 1 < s.length()) {
+			promotion = pieceType(s.charAt(equals + 1), san);
+			s = s.substring(0, equals);
+		}
+		else if (s.length() > 2 && PIECES.indexOf(s.charAt(s.length() - 1)) > 0 && Character.isDigit(s.charAt(s.length() - 2))) {
+			promotion = pieceType(s.charAt(s.length() - 1), san);					// Forma sem '=' (e8Q), aceita por muitos arquivos.
+			s = s.substring(0, s.length() - 1);
+		}
+		PieceType type = PieceType.PAWN;
+		if (!s.isEmpty() && Character.isUpperCase(s.charAt(0))) {
+			type = pieceType(s.charAt(0), san);
+			s = s.substring(1);
+		}
+		s = s.replace("x", "").replace("-", "");
+		if (s.length() < 2) {
+			throw new ChessException("Invalid SAN: " + san);
+		}
+		int to = square(s.charAt(s.length() - 2), s.charAt(s.length() - 1), san);
+		int fromColumn = -1;
+		int fromRow = -1;
+		for (char c : s.substring(0, s.length() - 2).toCharArray()) {				// Desambiguação: coluna, fileira ou casa de origem.
+			if (c >= 'a' && c <= 'h') {
+				fromColumn = c - 'a';
+			}
+			else if (c >= '1' && c <= '8') {
+				fromRow = 8 - (c - '0');
+			}
+			else {
+				throw new ChessException("Invalid SAN: " + san);
+			}
+		}
+
+		int found = -1;
+		for (int i = 0; i < count; i++) {
+			int move = buffer[i];
+			int from = Move.from(move);
+			ChessPiece piece = match.pieceAt(from);
+			if (Move.to(move) != to || piece.getType() != type || Move.promotion(move) != promotion || Move.isCastling(move)
+					|| (fromColumn >= 0 && from % 8 != fromColumn) || (fromRow >= 0 && from / 8 != fromRow)) {
+				continue;
+			}
+			if (found != -1) {
+				throw new ChessException("Ambiguous SAN: " + san);
+			}
+			found = move;
+		}
+		if (found == -1) {
+			throw new ChessException("Illegal SAN: " + san);
+		}
+		return found;
+	}
+
+	private static String stripSuffixes(String san) {							// Remove xeque, mate e anotações (+, #, !, ?).
+		int end = san.length();
+		while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+			end--;
+		}
+		return san.substring(0, end);
+	}
+
+	private static PieceType pieceType(char c, String san) {
+		int index = PIECES.indexOf(c);
+		if (index < 0) {
+			throw new ChessException("Invalid piece in SAN: " + san);
+		}
+		return PieceType.values()[index];
+	}
+
+	private static int square(char column, char row, String san) {
+		if (column < 'a' || column > 'h' || row < '1' || row > '8') {
+			throw new ChessException("Invalid square in SAN: " + san);
+		}
+		return (8 - (row - '0')) * 8 + (column - 'a');
+	}
+}
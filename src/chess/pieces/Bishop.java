@@ -1,9 +1,11 @@
 package chess.pieces;
 
 import boardgame.Board;
-import boardgame.Position;
+import chess.Attacks;
+import chess.ChessBoard;
 import chess.ChessPiece;
 import chess.Color;
+import chess.PieceType;
 
 public class Bishop extends ChessPiece {
 
@@ -11,57 +13,19 @@ public class Bishop extends ChessPiece {
 		super(board, color);
 	}
 	
+	@Override
+	public PieceType getType() {
+		return PieceType.BISHOP;
+	}
+
 	@Override
 	public String toString() {
 		return "B";
 	}
 
-	public boolean[][] possibleMoves() {
-		boolean[][] mat = new boolean [getBoard().getRows()][getBoard().getColumns()];
-		
-		Position p = new Position(0, 0);
-		
-		//nw
-		p.setValues(position.getRow() - 1, position.getColumn() - 1);
-		while (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setValues(p.getRow() - 1 , p.getColumn() - 1);
-		}
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		
-		//ne
-		p.setValues(position.getRow() - 1, position.getColumn() + 1);
-		while (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setValues(p.getRow() - 1, p.getColumn() + 1);
-		}
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		
-		//se
-		p.setValues(position.getRow() + 1, position.getColumn() + 1);
-		while (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setValues(p.getRow() + 1, p.getColumn() + 1);;
-				}
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}	
-		
-		//sw
-		p.setValues(position.getRow() + 1, position.getColumn() - 1);
-		while (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setValues(p.getRow() + 1, p.getColumn() - 1);
-		}
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-					
-		
-		return mat;
+	@Override
+	public long possibleMovesMask() {
+		ChessBoard board = getChessBoard();
+		return Attacks.bishop(getSquare(), board.getOccupied()) & ~board.pieces(getColor());
 	}
 }
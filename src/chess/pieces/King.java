@@ -1,115 +1,57 @@
 package chess.pieces;
 
 import boardgame.Board;
-import boardgame.Position;
-import chess.ChessMatch;
+import chess.Attacks;
+import chess.ChessBoard;
 import chess.ChessPiece;
 import chess.Color;
+import chess.PieceType;
 
 public class King extends ChessPiece {
 
-	private ChessMatch chessMatch;
-
-	public King(Board board, Color color, ChessMatch chessMatch) {
+	public King(Board board, Color color) {
 		super(board, color);
-		this.chessMatch = chessMatch;
 	}
 
 	@Override
-	public String toString() {
-		return "K";
+	public PieceType getType() {
+		return PieceType.KING;
 	}
 
-	private boolean canMove(Position position) { // Verifica se é possível mover o rei para a posição especificada.
-		ChessPiece p = (ChessPiece) getBoard().piece(position); // A variável 'p' recebe o rei na posição 'position'
-																// convertido para ChessPiece.
-		return p == null || p.getColor() != getColor(); // Retorna verdadeiro se a posição estiver vazia ('p == null')
-														// ou se contiver uma peça adversária ('p.getColor() !=
-														// getColor()'),
+	@Override
+	public String toString() {
+		return "K";
 	}
 
-	private boolean testRookCastling(Position position) {
-		ChessPiece p = (ChessPiece) getBoard().piece(position);
+	private boolean testRookCastling(int square) {
+		ChessPiece p = (ChessPiece) getBoard().piece(square);
 		return p != null && p instanceof Rook && p.getColor() == getColor() && p.getMoveCount() == 0;
 	}
 
 	@Override
-	public boolean[][] possibleMoves() {
-		boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
-
-		Position p = new Position(0, 0);
-
-		// above
-		p.setValues(position.getRow() - 1, position.getColumn());
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// below
-		p.setValues(position.getRow() + 1, position.getColumn());
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// left
-		p.setValues(position.getRow(), position.getColumn() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// right
-		p.setValues(position.getRow(), position.getColumn() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// nw
-		p.setValues(position.getRow() - 1, position.getColumn() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// ne
-		p.setValues(position.getRow() - 1, position.getColumn() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// sw
-		p.setValues(position.getRow() + 1, position.getColumn() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// se
-		p.setValues(position.getRow() + 1, position.getColumn() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
+	public long possibleMovesMask() {
+		ChessBoard board = getChessBoard();
+		int square = getSquare();
+		long targets = Attacks.king(square) & ~board.pieces(getColor());
+		Color opponent = (getColor() == Color.WHITE) ? Color.BLACK : Color.WHITE;
 
 		// #specialmove castling
-		if (getMoveCount() == 0 && !chessMatch.getCheck()) {
+		// O rei não pode estar em xeque nem passar por uma casa atacada.
+		if (getMoveCount() == 0 && !board.isSquareAttacked(square, opponent)) {
+			long occupied = board.getOccupied();
+			int column = square % 8;
 			// #specialmove castling kingside rook
-			Position posT1 = new Position(position.getRow(), position.getColumn() + 3);
-			if (testRookCastling(posT1)) {
-				Position p1 = new Position(position.getRow(), position.getColumn() + 1);
-				Position p2 = new Position(position.getRow(), position.getColumn() + 2);
-				if (getBoard().piece(p1) == null && getBoard().piece(p2) == null) {
-					mat[position.getRow()][position.getColumn() + 2] = true;
-				}
+			if (column + 3 < 8 && testRookCastling(square + 3) && (occupied & (0b11L << (square + 1))) == 0
+					&& !board.isSquareAttacked(square + 1, opponent) && !board.isSquareAttacked(square + 2, opponent)) {
+				targets |= 1L << (square + 2);
 			}
 			// #specialmove castling queenside rook
-			Position posT2 = new Position(position.getRow(), position.getColumn() - 4);
-			if (testRookCastling(posT2)) {
-				Position p1 = new Position(position.getRow(), position.getColumn() - 1);
-				Position p2 = new Position(position.getRow(), position.getColumn() - 2);
-				Position p3 = new Position(position.getRow(), position.getColumn() - 3);
-				if (getBoard().piece(p1) == null && getBoard().piece(p2) == null && getBoard().piece(p3) == null) {
-					mat[position.getRow()][position.getColumn() - 2] = true;
-				}
+			if (column - 4 >= 0 && testRookCastling(square - 4) && (occupied & (0b111L << (square - 3))) == 0
+					&& !board.isSquareAttacked(square - 1, opponent) && !board.isSquareAttacked(square - 2, opponent)) {
+				targets |= 1L << (square - 2);
 			}
 		}
 
-		return mat;
+		return targets;
 	}
 }
@@ -1,9 +1,10 @@
 package chess.pieces;
 
 import boardgame.Board;
-import boardgame.Position;
+import chess.Attacks;
 import chess.ChessPiece;
 import chess.Color;
+import chess.PieceType;
 
 public class Knight extends ChessPiece {
 
@@ -11,63 +12,18 @@ public class Knight extends ChessPiece {
 		super(board, color);
 	}
 
+	@Override
+	public PieceType getType() {
+		return PieceType.KNIGHT;
+	}
+
 	@Override
 	public String toString() {
 		return "N";
 	}
 
-	private boolean canMove(Position position) {					
-		ChessPiece p = (ChessPiece)getBoard().piece(position);				
-		return p == null || p.getColor() != getColor();						
-	}																	
-			
 	@Override
-	public boolean[][] possibleMoves() {
-		boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
-		
-		Position p = new Position(0, 0);
-	
-		p.setValues(position.getRow() - 1, position.getColumn() - 2);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		
-		p.setValues(position.getRow() - 2, position.getColumn() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		p.setValues(position.getRow() - 2, position.getColumn() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		p.setValues(position.getRow() - 1, position.getColumn() + 2);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		p.setValues(position.getRow() + 1, position.getColumn() + 2);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		p.setValues(position.getRow() + 2, position.getColumn() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		p.setValues(position.getRow() + 2, position.getColumn() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		
-		p.setValues(position.getRow() + 1, position.getColumn() - 2);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		return mat;
+	public long possibleMovesMask() {
+		return Attacks.knight(getSquare()) & ~getChessBoard().pieces(getColor());
 	}
 }
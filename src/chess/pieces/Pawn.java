@@ -1,10 +1,12 @@
 package chess.pieces;
 
 import boardgame.Board;
-import boardgame.Position;
+import chess.Attacks;
+import chess.ChessBoard;
 import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.Color;
+import chess.PieceType;
 
 public class Pawn extends ChessPiece {
 	
@@ -16,79 +18,36 @@ public class Pawn extends ChessPiece {
 	}
 
 	@Override
-	public boolean[][] possibleMoves() {
-		
-		boolean[][] mat = new boolean [getBoard().getRows()][getBoard().getColumns()];
-		
-		Position p = new Position(0, 0);
-		
-		if (getColor() == Color.WHITE) {
-			p.setValues(position.getRow() - 1, position.getColumn());
-			if(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
-			p.setValues(position.getRow() - 2, position.getColumn());
-			Position p2 = new Position(position.getRow() - 1, position.getColumn());
-			if(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p) && getBoard().positionExists(p2) && !getBoard().thereIsAPiece(p2) && getMoveCount() == 0) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
-			p.setValues(position.getRow() - 1, position.getColumn() -1);
-			if(getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
-			p.setValues(position.getRow() - 1, position.getColumn() +1);
-			if(getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
+	public PieceType getType() {
+		return PieceType.PAWN;
+	}
+
+	@Override
+	public long possibleMovesMask() {
+		ChessBoard board = getChessBoard();
+		int square = getSquare();
+		int forward = (getColor() == Color.WHITE) ? -8 : 8;					// O peão branco sobe (linha - 1) e o preto desce (linha + 1).
+		Color opponent = (getColor() == Color.WHITE) ? Color.BLACK : Color.WHITE;
+		long empty = ~board.getOccupied();
+		long targets = 0L;
 
-			// #specialmove  en passant white
-			if(position.getRow() ==  3) {
-				Position left = new Position(position.getRow(), position.getColumn() - 1);
-				if (getBoard().positionExists(left) && isThereOpponentPiece(left) && getBoard().piece(left) == chessMatch.getEnPassantVulnerable()) {
-					mat[left.getRow() - 1][left.getColumn()] = true;
-				}
-				Position right = new Position(position.getRow(), position.getColumn() + 1);
-				if (getBoard().positionExists(right) && isThereOpponentPiece(right) && getBoard().piece(right) == chessMatch.getEnPassantVulnerable()) {
-					mat[right.getRow() - 1][right.getColumn()] = true;
-				}
+		int one = square + forward;
+		if (one >= 0 && one < 64 && (empty & (1L << one)) != 0) {
+			targets |= 1L << one;
+			int two = one + forward;
+			if (getMoveCount() == 0 && two >= 0 && two < 64 && (empty & (1L << two)) != 0) {
+				targets |= 1L << two;
 			}
-			
-			
 		}
-		else {
-			p.setValues(position.getRow() + 1, position.getColumn());
-			if(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
-			p.setValues(position.getRow() + 2, position.getColumn());
-			Position p2 = new Position(position.getRow() + 1, position.getColumn());
-			if(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p) && getBoard().positionExists(p2) && !getBoard().thereIsAPiece(p2) && getMoveCount() == 0) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
-			p.setValues(position.getRow() + 1, position.getColumn() -1);
-			if(getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
-			p.setValues(position.getRow() + 1, position.getColumn() +1);
-			if(getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
-			// #specialmove en passant black
-			if (position.getRow() == 4) {
-				Position left = new Position(position.getRow(), position.getColumn() - 1);
-				if (getBoard().positionExists(left) && isThereOpponentPiece(left)
-						&& getBoard().piece(left) == chessMatch.getEnPassantVulnerable()) {
-					mat[left.getRow() + 1][left.getColumn()] = true;
-				}
-				Position right = new Position(position.getRow(), position.getColumn() + 1);
-				if (getBoard().positionExists(right) && isThereOpponentPiece(right)
-						&& getBoard().piece(right) == chessMatch.getEnPassantVulnerable()) {
-					mat[right.getRow() + 1][right.getColumn()] = true;
-				}
-			}
-						
+		targets |= Attacks.pawn(getColor(), square) & board.pieces(opponent);
+
+		// #specialmove en passant
+		ChessPiece vulnerable = chessMatch.getEnPassantVulnerable();
+		if (vulnerable != null && vulnerable.getColor() == opponent && vulnerable.getSquare() >= 0) {
+			targets |= Attacks.pawn(getColor(), square) & (1L << (vulnerable.getSquare() + forward));	// Casa logo atrás do peão vulnerável.
 		}
-		return mat;
+
+		return targets;
 	}
 	
 	@Override
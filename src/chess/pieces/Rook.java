@@ -1,9 +1,11 @@
 package chess.pieces;
 
 import boardgame.Board;
-import boardgame.Position;
+import chess.Attacks;
+import chess.ChessBoard;
 import chess.ChessPiece;
 import chess.Color;
+import chess.PieceType;
 
 public class Rook extends ChessPiece {
 
@@ -11,6 +13,11 @@ public class Rook extends ChessPiece {
 		super(board, color);
 	}
 	
+	@Override
+	public PieceType getType() {
+		return PieceType.ROOK;
+	}
+
 	@Override
 	public String toString() {
 		return "R";
@@ -18,54 +25,11 @@ public class Rook extends ChessPiece {
 
 	
 	// Calcula as jogadas possíveis para a Torre (Rook) em todas as direções (acima, abaixo, esquerda e direita).
-	// O método utiliza um objeto Position (p) para rastrear as posições em cada direção e uma matriz booleana (mat) para marcar as jogadas válidas.
+	// Uma única consulta à tabela de magic bitboards devolve as casas alcançadas até a primeira peça de cada raio;
+	// as casas ocupadas por peças da mesma cor são então descartadas.
 	@Override
-	public boolean[][] possibleMoves() {
-		boolean[][] mat = new boolean [getBoard().getRows()][getBoard().getColumns()];
-		
-		Position p = new Position(0, 0);
-		
-		//above
-		p.setValues(position.getRow() - 1, position.getColumn());
-		while (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setRow(p.getRow() - 1);
-		}
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		
-		//left
-		p.setValues(position.getRow(), position.getColumn() - 1);
-		while (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setColumn(p.getColumn() -1);
-		}
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		
-		//right
-		p.setValues(position.getRow(), position.getColumn() + 1);
-		while (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setColumn(p.getColumn() +1);
-				}
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}	
-		
-		//below
-		p.setValues(position.getRow() + 1, position.getColumn());
-		while (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setRow(p.getRow() + 1);
-		}
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-					
-		
-		return mat;
+	public long possibleMovesMask() {
+		ChessBoard board = getChessBoard();
+		return Attacks.rook(getSquare(), board.getOccupied()) & ~board.pieces(getColor());
 	}
 }
@@ -0,0 +1,13 @@
+package chess.service;
+
+public interface MatchListener {
+
+	// Acompanha as partidas de um MatchService. Os eventos de uma partida chegam em ordem, na thread que
+	// executa os comandos dela; não devem bloquear (ex.: só enfileirar o envio para outra thread).
+
+	void matchCreated(MatchState state);
+
+	void moveMade(MatchState state);
+
+	void matchClosed(MatchState state);
+}
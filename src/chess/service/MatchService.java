@@ -0,0 +1,233 @@
+package chess.service;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.Move;
+import chess.engine.PieceSquareEvaluator;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+
+public class MatchService implements Closeable {
+
+	// Serviço que hospeda muitas partidas ao mesmo tempo, com uma API sem bloqueio (CompletableFuture).
+	// Cada partida é confinada: os seus comandos formam uma fila própria, executada um de cada vez e na ordem
+	// de chegada, por um pool pequeno de threads compartilhado por todas as partidas. Nenhuma thread fica presa
+	// a uma partida ociosa, então o número de partidas só é limitado pela memória.
+	// As buscas do motor rodam em outro pool, limitado, com tempo máximo por busca: enquanto uma partida espera
+	// o lance do motor, os comandos das outras continuam sendo atendidos, e uma busca longa não ocupa o pool
+	// de comandos nem passa à frente das buscas já enfileiradas.
+
+	public static final long DEFAULT_MAX_SEARCH_MILLIS = 10_000;
+
+	private final ExecutorService commands;
+	private final ExecutorService searches;
+	private final TranspositionTable table;					// Compartilhada pelas buscas de todas as partidas (ver TranspositionTable).
+	private final long maxSearchMillis;
+	private final ConcurrentHashMap<Long, Session> sessions = new ConcurrentHashMap<>();
+	private final AtomicLong nextId = new AtomicLong();
+	private final List<MatchListener> listeners = new CopyOnWriteArrayList<>();
+	private final Set<Search> running = ConcurrentHashMap.newKeySet();		// Buscas em andamento, paradas por close().
+	private volatile boolean closed;
+
+	public MatchService() {
+		this(Runtime.getRuntime().availableProcessors(), Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 64, DEFAULT_MAX_SEARCH_MILLIS);
+	}
+
+	public MatchService(int commandThreads, int searchThreads, int hashMegabytes, long maxSearchMillis) {
+		commands = Executors.newFixedThreadPool(Math.max(1, commandThreads), daemon("match-commands"));
+		searches = Executors.newFixedThreadPool(Math.max(1, searchThreads), daemon("match-search"));
+		table = new TranspositionTable(hashMegabytes);
+		this.maxSearchMillis = maxSearchMillis;
+	}
+
+	public void addListener(MatchListener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(MatchListener listener) {
+		listeners.remove(listener);
+	}
+
+	public int size() {
+		return sessions.size();
+	}
+
+	public CompletableFuture<MatchState> create() {
+		return create(null);
+	}
+
+	public CompletableFuture<MatchState> create(String fen) {					// Nova partida na posição inicial ou no FEN informado.
+		ChessMatch match;
+		try {
+			match = (fen != null) ? ChessMatch.fromFen(fen) : new ChessMatch();
+		}
+		catch (RuntimeException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+		Session session = new Session(nextId.incrementAndGet(), match);
+		sessions.put(session.id, session);
+		return submit(session, s -> {
+			MatchState state = snapshot(s);
+			for (MatchListener listener : listeners) {
+				listener.matchCreated(state);
+			}
+			return CompletableFuture.completedFuture(state);
+		});
+	}
+
+	public CompletableFuture<MatchState> state(long id) {
+		return submit(id, s -> CompletableFuture.completedFuture(snapshot(s)));
+	}
+
+	public CompletableFuture<MatchState> move(long id, String move) {			// Lance na notação UCI (e2e4, e7e8q); falha com ChessException se for ilegal.
+		return submit(id, s -> {
+			checkPlaying(s);
+			int parsed = Move.parse(s.match, move);
+			if (parsed == -1) {
+				throw new ChessException("Illegal move " + move + " in match " + s.id);
+			}
+			return CompletableFuture.completedFuture(play(s, parsed));
+		});
+	}
+
+	public CompletableFuture<MatchState> engineMove(long id, SearchLimits limits) {	// O motor joga pelo lado da vez. O tempo é limitado a maxSearchMillis.
+		long time = (limits.getTimeMillis() > 0) ? Math.min(limits.getTimeMillis(), maxSearchMillis) : maxSearchMillis;
+		SearchLimits capped = new SearchLimits(limits.getDepth(), limits.getNodes(), time);
+		return submit(id, s -> {
+			checkPlaying(s);
+			ChessMatch position = s.match.copy();								// Com as chaves desde o último lance irreversível, para a busca ver as repetições.
+			return CompletableFuture.supplyAsync(() -> search(position, capped), searches)
+					.thenApplyAsync(result -> play(s, bestMove(s, result)), commands);	// A fila da partida espera a busca sem ocupar uma thread.
+		});
+	}
+
+	public CompletableFuture<MatchState> close(long id) {						// Encerra a partida depois dos comandos já enfileirados; retorna o estado final.
+		return submit(id, s -> {
+			sessions.remove(s.id);
+			MatchState state = snapshot(s);
+			for (MatchListener listener : listeners) {
+				listener.matchClosed(state);
+			}
+			return CompletableFuture.completedFuture(state);
+		});
+	}
+
+	@Override
+	public void close() {															// Para o serviço: buscas enfileiradas não começam e as em andamento
+		closed = true;																// recebem Search.stop(), terminando com o melhor lance já encontrado.
+		searches.shutdownNow();
+		for (Search search : running) {
+			search.stop();
+		}
+		commands.shutdown();
+		try {
+			commands.awaitTermination(maxSearchMillis, TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private SearchResult search(ChessMatch position, SearchLimits limits) {
+		Search search = new Search(position, new PieceSquareEvaluator(), table);
+		running.add(search);
+		try {
+			if (closed) {																// close() pode ter percorrido 'running' antes do add.
+				search.stop();
+			}
+			return search.search(limits);
+		}
+		finally {
+			running.remove(search);
+		}
+	}
+
+	private CompletableFuture<MatchState> submit(long id, Function<Session, CompletableFuture<MatchState>> command) {
+		Session session = sessions.get(id);
+		if (session == null) {
+			return CompletableFuture.failedFuture(new IllegalArgumentException("Unknown match " + id));
+		}
+		return submit(session, command);
+	}
+
+	private CompletableFuture<MatchState> submit(Session session, Function<Session, CompletableFuture<MatchState>> command) {
+		synchronized (session) {														// Cada comando começa quando o anterior terminou (com sucesso ou não).
+			CompletableFuture<MatchState> result = session.tail.handle((state, error) -> session)
+					.thenComposeAsync(command, commands);
+			session.tail = result;
+			return result;
+		}
+	}
+
+	private MatchState play(Session s, int move) {										// Executa na fila da partida.
+		s.match.makeMove(move);
+		s.lastMove = Move.toString(move);
+		s.ply++;
+		MatchState state = snapshot(s);
+		for (MatchListener listener : listeners) {
+			listener.moveMade(state);
+		}
+		return state;
+	}
+
+	private static int bestMove(Session s, SearchResult result) {
+		if (result.getBestMove() == -1) {
+			throw new ChessException("No legal move in match " + s.id);
+		}
+		return result.getBestMove();
+	}
+
+	private static void checkPlaying(Session s) {
+		MatchStatus status = status(s.match);
+		if (status.isOver()) {
+			throw new ChessException("Match " + s.id + " is over: " + status);
+		}
+	}
+
+	private static MatchState snapshot(Session s) {
+		return new MatchState(s.id, s.match.toFen(), s.lastMove, s.ply, s.match.getCheck(), status(s.match));
+	}
+
+	private static MatchStatus status(ChessMatch match) {
+		if (match.legalMoves(new int[256]) == 0) {
+			return match.getCheck() ? MatchStatus.CHECKMATE : MatchStatus.STALEMATE;
+		}
+		return (match.getHalfmoveClock() >= 100) ? MatchStatus.FIFTY_MOVES : MatchStatus.PLAYING;
+	}
+
+	private static ThreadFactory daemon(String name) {
+		return r -> {
+			Thread t = new Thread(r, name);
+			t.setDaemon(true);
+			return t;
+		};
+	}
+
+	private static class Session {
+		final long id;
+		final ChessMatch match;
+		String lastMove;											// Só acessados pelos comandos da partida, que nunca rodam ao mesmo tempo.
+		int ply;
+		CompletableFuture<?> tail = CompletableFuture.completedFuture(null);	// Último comando enfileirado (protegido pelo monitor da sessão).
+
+		Session(long id, ChessMatch match) {
+			this.id = id;
+			this.match = match;
+		}
+	}
+}
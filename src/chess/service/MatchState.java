@@ -0,0 +1,51 @@
+package chess.service;
+
+public class MatchState {
+
+	// Retrato imutável de uma partida do MatchService, tirado na thread da partida logo após cada comando.
+
+	private final long id;
+	private final String fen;
+	private final String lastMove;
+	private final int ply;
+	private final boolean check;
+	private final MatchStatus status;
+
+	public MatchState(long id, String fen, String lastMove, int ply, boolean check, MatchStatus status) {
+		this.id = id;
+		this.fen = fen;
+		this.lastMove = lastMove;
+		this.ply = ply;
+		this.check = check;
+		this.status = status;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public String getFen() {
+		return fen;
+	}
+
+	public String getLastMove() {				// Último lance em notação UCI (ex.: e2e4), ou null antes do primeiro.
+		return lastMove;
+	}
+
+	public int getPly() {						// Lances (de cada lado) jogados no serviço desde a criação da partida.
+		return ply;
+	}
+
+	public boolean getCheck() {
+		return check;
+	}
+
+	public MatchStatus getStatus() {
+		return status;
+	}
+
+	@Override
+	public String toString() {
+		return "match " + id + " ply " + ply + " " + status + ((lastMove != null) ? " after " + lastMove : "") + ": " + fen;
+	}
+}
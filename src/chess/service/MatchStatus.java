@@ -0,0 +1,13 @@
+package chess.service;
+
+public enum MatchStatus {
+
+	PLAYING,
+	CHECKMATE,						// O jogador da vez levou mate.
+	STALEMATE,
+	FIFTY_MOVES;					// Empate: 50 lances de cada lado sem captura nem lance de peão.
+
+	public boolean isOver() {
+		return this != PLAYING;
+	}
+}
@@ -0,0 +1,417 @@
+package chess.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SpectatorGateway implements MatchListener, Closeable {
+
+	// Servidor TCP (NIO, uma única thread com Selector) que transmite as partidas de um MatchService a espectadores.
+	// O cliente envia linhas de texto: "watch <partida>" e "unwatch <partida>"; só as partidas criadas depois do gateway
+	// (e ainda abertas) podem ser acompanhadas, as demais recebem ERROR. O servidor responde com frames binários
+	// (big-endian): u16 tamanho do resto do frame, u8 tipo, u64 partida e
+	//   BOARD  (1): u16 ply, u8 status (MatchStatus.ordinal()), FEN (UTF-8) -> só ao entrar e ao ressincronizar
+	//   MOVE   (2): u16 ply, u16 lance (bits 0-5 origem, 6-11 destino, 12-14 promoção, como em Move), u8 status -> 16 bytes
+	//   CLOSED (3): u8 status
+	//   ERROR  (4): mensagem (UTF-8), com partida 0
+	// Cada frame de lance é montado uma só vez e compartilhado (ByteBuffer.duplicate()) por todos os espectadores.
+	// Contrapressão: um espectador com mais de maxPendingBytes na fila perde os lances enfileirados e, quando a
+	// conexão volta a escoar, recebe de novo o tabuleiro (BOARD) de cada partida que acompanha.
+
+	public static final byte BOARD = 1;
+	public static final byte MOVE = 2;
+	public static final byte CLOSED = 3;
+	public static final byte ERROR = 4;
+	public static final int DEFAULT_MAX_PENDING_BYTES = 64 * 1024;
+
+	private static final int HEADER_BYTES = 11;								// Tamanho, tipo e partida.
+	private static final int SEND_BUFFER_BYTES = 32 * 1024;					// Buffer do kernel pequeno: a fila de cada conexão é que absorve picos.
+	private static final int MAX_LINE = 256;
+
+	private final MatchService service;
+	private final Selector selector;
+	private final ServerSocketChannel server;
+	private final int maxPendingBytes;
+	private final Thread thread;
+	private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();		// Trabalho das outras threads para a thread do Selector.
+	private final Map<Long, MatchState> latest = new HashMap<>();							// Daqui para baixo: só a thread do Selector.
+	private final Map<Long, Set<Connection>> watchers = new HashMap<>();
+	private final AtomicLong resyncs = new AtomicLong();
+	private final AtomicLong failures = new AtomicLong();
+	private volatile boolean running = true;
+
+	public SpectatorGateway(MatchService service, InetSocketAddress address) throws IOException {
+		this(service, address, DEFAULT_MAX_PENDING_BYTES);
+	}
+
+	public SpectatorGateway(MatchService service, InetSocketAddress address, int maxPendingBytes) throws IOException {
+		this.service = service;
+		this.maxPendingBytes = maxPendingBytes;
+		selector = Selector.open();
+		server = ServerSocketChannel.open();
+		server.bind(address);
+		server.configureBlocking(false);
+		server.register(selector, SelectionKey.OP_ACCEPT);
+		thread = new Thread(this::run, "spectator-gateway");
+		thread.setDaemon(true);
+		thread.start();
+		service.addListener(this);
+	}
+
+	public InetSocketAddress getAddress() throws IOException {				// Útil com a porta 0 (escolhida pelo sistema).
+		return (InetSocketAddress) server.getLocalAddress();
+	}
+
+	public long getResyncs() {													// Vezes em que um espectador lento perdeu lances e foi ressincronizado.
+		return resyncs.get();
+	}
+
+	public long getFailures() {													// Erros inesperados contidos pelo laço do Selector (a conexão envolvida é fechada).
+		return failures.get();
+	}
+
+	@Override
+	public void matchCreated(MatchState state) {
+		execute(() -> latest.put(state.getId(), state));
+	}
+
+	@Override
+	public void moveMade(MatchState state) {									// Chamado na thread da partida: monta o frame ali e entrega à thread do Selector.
+		ByteBuffer frame = frame(MOVE, state.getId(), 5);
+		frame.putShort((short) state.getPly()).putShort((short) moveCode(state.getLastMove())).put((byte) state.getStatus().ordinal()).flip();
+		ByteBuffer shared = frame.asReadOnlyBuffer();
+		execute(() -> {
+			latest.put(state.getId(), state);
+			for (Connection connection : watchers.getOrDefault(state.getId(), Set.of())) {
+				send(connection, shared);
+			}
+		});
+	}
+
+	@Override
+	public void matchClosed(MatchState state) {
+		ByteBuffer frame = frame(CLOSED, state.getId(), 1);
+		frame.put((byte) state.getStatus().ordinal()).flip();
+		ByteBuffer shared = frame.asReadOnlyBuffer();
+		execute(() -> {
+			latest.remove(state.getId());
+			Set<Connection> connections = watchers.remove(state.getId());
+			if (connections != null) {
+				for (Connection connection : connections) {
+					connection.watching.remove(state.getId());
+					if (!connection.resync && connection.pending + shared.remaining() > maxPendingBytes) {
+						startResync(connection);
+					}
+					if (connection.resync) {										// Perdeu lances: recebe a posição final antes do fim.
+						enqueue(connection, board(state));
+					}
+					enqueue(connection, shared);									// O fim da partida nunca é descartado.
+				}
+			}
+		});
+	}
+
+	@Override
+	public void close() throws IOException {
+		service.removeListener(this);
+		running = false;
+		selector.wakeup();
+		try {
+			thread.join();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void execute(Runnable task) {
+		tasks.add(task);
+		selector.wakeup();
+	}
+
+	private void run() {
+		try {
+			while (running) {
+				selector.select();
+				for (Runnable task = tasks.poll(); task != null; task = tasks.poll()) {
+					try {
+						task.run();
+					}
+					catch (RuntimeException e) {											// Um erro numa tarefa não pode parar a thread de todos os espectadores.
+						failures.incrementAndGet();
+					}
+				}
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					if (!key.isValid()) {
+						continue;
+					}
+					if (key.isAcceptable()) {
+						try {
+							accept();
+						}
+						catch (IOException | RuntimeException e) {						// Falhou só este cliente: o servidor continua aceitando.
+							failures.incrementAndGet();
+						}
+						continue;
+					}
+					Connection connection = (Connection) key.attachment();
+					try {
+						if (key.isReadable()) {
+							read(connection);
+						}
+						if (key.isValid() && key.isWritable()) {
+							flush(connection);
+						}
+					}
+					catch (IOException e) {
+						disconnect(connection);
+					}
+					catch (RuntimeException e) {										// Ex.: CancelledKeyException, ou um erro em read(): só esta conexão cai.
+						failures.incrementAndGet();
+						disconnect(connection);
+					}
+				}
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		finally {
+			for (SelectionKey key : selector.keys()) {
+				try {
+					key.channel().close();
+				}
+				catch (IOException e) {
+					// Encerrando: nada a fazer.
+				}
+			}
+			try {
+				selector.close();
+			}
+			catch (IOException e) {
+				// Encerrando: nada a fazer.
+			}
+		}
+	}
+
+	private void accept() throws IOException {
+		SocketChannel channel = server.accept();
+		if (channel == null) {
+			return;
+		}
+		channel.configureBlocking(false);
+		channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+		channel.setOption(StandardSocketOptions.SO_SNDBUF, SEND_BUFFER_BYTES);
+		SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+		key.attach(new Connection(channel, key));
+	}
+
+	private void read(Connection connection) throws IOException {
+		if (connection.channel.read(connection.input) < 0) {
+			disconnect(connection);
+			return;
+		}
+		ByteBuffer input = connection.input;
+		input.flip();
+		int start = input.position();
+		for (int i = start; i < input.limit(); i++) {
+			if (input.get(i) == '\n') {
+				byte[] line = new byte[i - start];
+				input.get(start, line);
+				command(connection, new String(line, StandardCharsets.UTF_8).trim());
+				start = i + 1;
+			}
+		}
+		input.position(start);
+		input.compact();
+		if (!input.hasRemaining()) {												// Linha maior que MAX_LINE: o cliente não fala o protocolo.
+			disconnect(connection);
+		}
+	}
+
+	private void command(Connection connection, String line) {
+		String[] tokens = line.split("\\s+");
+		long id;
+		try {
+			id = (tokens.length == 2) ? Long.parseLong(tokens[1]) : -1;
+		}
+		catch (NumberFormatException e) {
+			id = -1;
+		}
+		if (id >= 0 && tokens[0].equals("watch")) {
+			watch(connection, id);
+		}
+		else if (id >= 0 && tokens[0].equals("unwatch")) {
+			connection.watching.remove(id);
+			removeWatcher(id, connection);
+		}
+		else if (!line.isEmpty()) {
+			send(connection, error("unknown command: " + line));
+		}
+	}
+
+	private void watch(Connection connection, long id) {						// Entrada: o tabuleiro completo, uma vez; depois só os lances.
+		MatchState state = latest.get(id);
+		if (state == null) {															// Só partidas abertas que o gateway viu ser criadas (matchCreated).
+			send(connection, error("unknown match " + id));
+			return;
+		}
+		if (!connection.watching.add(id)) {
+			return;
+		}
+		watchers.computeIfAbsent(id, k -> new HashSet<>()).add(connection);
+		send(connection, board(state));
+	}
+
+	private void removeWatcher(long id, Connection connection) {					// Sem espectadores, a partida sai do mapa.
+		Set<Connection> connections = watchers.get(id);
+		if (connections != null && connections.remove(connection) && connections.isEmpty()) {
+			watchers.remove(id);
+		}
+	}
+
+	private void send(Connection connection, ByteBuffer frame) {
+		if (connection.resync) {														// Os tabuleiros enviados na ressincronização já incluirão este lance.
+			return;
+		}
+		if (connection.pending + frame.remaining() > maxPendingBytes) {
+			startResync(connection);
+			return;
+		}
+		enqueue(connection, frame);
+	}
+
+	private void startResync(Connection connection) {								// Espectador lento: descarta os lances na fila e espera ela escoar.
+		ByteBuffer head = connection.output.peek();
+		connection.output.clear();
+		connection.pending = 0;
+		if (head != null && head.position() > 0) {									// Um frame já começou a sair: termina de enviá-lo.
+			connection.output.add(head);
+			connection.pending = head.remaining();
+		}
+		connection.resync = true;
+		resyncs.incrementAndGet();
+		if (connection.key.isValid()) {
+			connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+		}
+	}
+
+	private void enqueue(Connection connection, ByteBuffer frame) {
+		if (!connection.channel.isOpen()) {
+			return;
+		}
+		connection.output.add(frame.duplicate());
+		connection.pending += frame.remaining();
+		try {
+			flush(connection);
+		}
+		catch (IOException e) {
+			execute(() -> disconnect(connection));									// Depois: quem chamou pode estar percorrendo os espectadores.
+		}
+	}
+
+	private void flush(Connection connection) throws IOException {
+		while (true) {
+			while (!connection.output.isEmpty()) {
+				ByteBuffer frame = connection.output.peek();
+				int before = frame.remaining();
+				connection.channel.write(frame);
+				connection.pending -= before - frame.remaining();
+				if (frame.hasRemaining()) {
+					connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);	// O kernel está cheio: continua quando der.
+					return;
+				}
+				connection.output.poll();
+			}
+			if (!connection.resync) {
+				break;
+			}
+			connection.resync = false;														// A fila escoou: manda o estado atual de cada partida.
+			for (long id : connection.watching) {
+				MatchState state = latest.get(id);
+				if (state != null) {
+					ByteBuffer frame = board(state);
+					connection.output.add(frame);
+					connection.pending += frame.remaining();
+				}
+			}
+		}
+		connection.key.interestOps(SelectionKey.OP_READ);
+	}
+
+	private void disconnect(Connection connection) {
+		for (long id : connection.watching) {
+			removeWatcher(id, connection);
+		}
+		connection.watching.clear();
+		connection.output.clear();
+		connection.key.cancel();
+		try {
+			connection.channel.close();
+		}
+		catch (IOException e) {
+			// A conexão já caiu.
+		}
+	}
+
+	private static ByteBuffer board(MatchState state) {
+		byte[] fen = state.getFen().getBytes(StandardCharsets.UTF_8);
+		ByteBuffer frame = frame(BOARD, state.getId(), 3 + fen.length);
+		frame.putShort((short) state.getPly()).put((byte) state.getStatus().ordinal()).put(fen).flip();
+		return frame;
+	}
+
+	private static ByteBuffer error(String message) {
+		byte[] text = message.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer frame = frame(ERROR, 0, text.length);
+		frame.put(text).flip();
+		return frame;
+	}
+
+	private static ByteBuffer frame(byte type, long id, int payload) {
+		ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + payload);
+		frame.putShort((short) (HEADER_BYTES - 2 + payload)).put(type).putLong(id);
+		return frame;
+	}
+
+	static int moveCode(String move) {												// "e7e8q" -> origem | destino << 6 | promoção << 12 (ver Move).
+		int from = (move.charAt(0) - 'a') + 8 * ('8' - move.charAt(1));
+		int to = (move.charAt(2) - 'a') + 8 * ('8' - move.charAt(3));
+		int promotion = (move.length() > 4) ? "pnbrq".indexOf(move.charAt(4)) : 0;
+		return from | (to << 6) | (promotion << 12);
+	}
+
+	private static class Connection {
+		final SocketChannel channel;
+		final SelectionKey key;
+		final ByteBuffer input = ByteBuffer.allocate(MAX_LINE);
+		final ArrayDeque<ByteBuffer> output = new ArrayDeque<>();						// Frames compartilhados (cada um com a sua posição própria).
+		final Set<Long> watching = new HashSet<>();
+		int pending;																	// Bytes na fila ainda não entregues ao kernel.
+		boolean resync;
+
+		Connection(SocketChannel channel, SelectionKey key) {
+			this.channel = channel;
+			this.key = key;
+		}
+	}
+}
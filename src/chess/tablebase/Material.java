@@ -0,0 +1,129 @@
+package chess.tablebase;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import chess.PieceType;
+
+final class Material {
+
+	// Material de uma tabela, na forma canônica da assinatura: as peças do lado mais forte (as brancas na tabela)
+	// e depois as do mais fraco, cada lado começando pelo rei e em ordem de valor (ex.: "KQK", "KRKP", "KPK").
+	// Uma posição com o material trocado de cor (ex.: rei e dama pretos contra rei branco) usa a mesma tabela,
+	// com o tabuleiro espelhado (casa ^ 56) e as cores e o lado a jogar trocados.
+
+	static final int MAX_PIECES = 4;
+	static final int WHITE = 0;								// Lados como gravados nos índices das tabelas (0 = brancas).
+	static final int BLACK = 1;
+
+	private static final String LETTERS = "PNBRQK";			// Por PieceType.ordinal().
+	private static final String ORDER = "KQRBNP";			// Ordem das peças dentro de um lado na assinatura.
+	private static final int[] VALUES = { 1, 3, 3, 5, 9, 0 };
+
+	final String signature;
+	final int[] sides;										// Lado e tipo de cada peça, na ordem da assinatura (índice da tabela).
+	final PieceType[] types;
+
+	private Material(String signature) {
+		this.signature = signature;
+		int n = signature.length();
+		sides = new int[n];
+		types = new PieceType[n];
+		int side = -1;
+		for (int i = 0; i < n; i++) {
+			char c = signature.charAt(i);
+			if (c == 'K') {
+				side++;
+			}
+			sides[i] = side;
+			types[i] = PieceType.values()[LETTERS.indexOf(c)];
+		}
+	}
+
+	static Material of(String signature) {					// Aceita o material em qualquer ordem/cor (ex.: "KKQ") e devolve a forma canônica.
+		String s = signature.trim().toUpperCase();
+		int second = s.indexOf('K', 1);
+		if (!s.startsWith("K") || second < 0 || s.indexOf('K', second + 1) >= 0 || s.length() > MAX_PIECES) {
+			throw new IllegalArgumentException("Invalid tablebase material (two kings, up to " + MAX_PIECES + " pieces): " + signature);
+		}
+		for (int i = 0; i < s.length(); i++) {
+			if (LETTERS.indexOf(s.charAt(i)) < 0) {
+				throw new IllegalArgumentException("Invalid piece '" + s.charAt(i) + "' in " + signature);
+			}
+		}
+		return new Material(canonical(s.substring(0, second), s.substring(second)));
+	}
+
+	static String canonical(String white, String black) {		// Cada lado é "K" + as outras peças, em qualquer ordem.
+		white = sort(white);
+		black = sort(black);
+		return isFlipped(white, black) ? black + white : white + black;
+	}
+
+	static boolean isFlipped(String white, String black) {		// Verdadeiro se as pretas são o lado forte (a tabela é a do material espelhado).
+		white = sort(white);
+		black = sort(black);
+		int difference = value(black) - value(white);
+		if (difference == 0) {
+			difference = black.length() - white.length();
+		}
+		if (difference == 0) {
+			difference = compare(black, white);
+		}
+		return difference > 0;
+	}
+
+	Set<String> children() {									// Materiais alcançáveis por uma captura ou promoção (já canônicos).
+		Set<String> children = new LinkedHashSet<>();
+		int second = signature.indexOf('K', 1);
+		for (int i = 0; i < signature.length(); i++) {
+			if (types[i] == PieceType.KING) {
+				continue;
+			}
+			String rest = signature.substring(0, i) + signature.substring(i + 1);
+			int k = (i < second) ? second - 1 : second;
+			children.add(canonical(rest.substring(0, k), rest.substring(k)));
+			if (types[i] == PieceType.PAWN) {
+				for (char promotion : "QRBN".toCharArray()) {
+					String promoted = signature.substring(0, i) + promotion + signature.substring(i + 1);
+					children.add(canonical(promoted.substring(0, second), promoted.substring(second)));
+				}
+			}
+		}
+		return children;
+	}
+
+	static char letter(PieceType type) {
+		return LETTERS.charAt(type.ordinal());
+	}
+
+	private static String sort(String side) {
+		char[] pieces = side.toCharArray();
+		for (int i = 1; i < pieces.length; i++) {
+			for (int j = i; j > 0 && ORDER.indexOf(pieces[j]) < ORDER.indexOf(pieces[j - 1]); j--) {
+				char c = pieces[j];
+				pieces[j] = pieces[j - 1];
+				pieces[j - 1] = c;
+			}
+		}
+		return new String(pieces);
+	}
+
+	private static int value(String side) {
+		int value = 0;
+		for (int i = 0; i < side.length(); i++) {
+			value += VALUES[LETTERS.indexOf(side.charAt(i))];
+		}
+		return value;
+	}
+
+	private static int compare(String a, String b) {			// Desempate: a peça mais forte na primeira diferença.
+		for (int i = 0; i < Math.min(a.length(), b.length()); i++) {
+			int c = ORDER.indexOf(b.charAt(i)) - ORDER.indexOf(a.charAt(i));
+			if (c != 0) {
+				return c;
+			}
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,116 @@
+package chess.tablebase;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class Tablebase {
+
+	// Uma tabela de finais (um material), gerada por TablebaseGenerator e lida mapeada em memória.
+	// Índice da posição: lado a jogar << (6 * n) | soma de casa(i) << (6 * i), com as n peças na ordem da assinatura.
+	// Valor (do ponto de vista de quem joga): 0 = empate (ou posição ilegal), senão 1 + lances (plies) até o mate:
+	// um número par de plies é derrota (0 = já levou mate) e um ímpar é vitória.
+	// Arquivo (little-endian): MAGIC, VERSION, número de peças, bits por valor, assinatura (8 bytes ASCII),
+	// número de entradas (long), 8 bytes livres e os valores empacotados em 'bits' bits cada (e 8 bytes de folga no fim).
+
+	static final int MAGIC = 0x31425443;					// "CTB1"
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 32;
+	static final String EXTENSION = ".ctb";
+
+	private final String signature;
+	private final int pieces;
+	private final int bits;
+	private final int mask;
+	private final long size;
+	private final ByteBuffer data;
+
+	private Tablebase(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Tablebase too large: " + file);
+			}
+			data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+		}
+		if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+			throw new IOException("Not a tablebase (version " + VERSION + "): " + file);
+		}
+		pieces = data.getInt(8);
+		bits = data.getInt(12);
+		byte[] name = new byte[8];
+		data.get(16, name);
+		signature = new String(name, StandardCharsets.US_ASCII).trim();
+		size = data.getLong(24);
+		mask = (1 << bits) - 1;
+		if (size != 2L << (6 * pieces) || data.capacity() < HEADER_BYTES + (size * bits + 7) / 8 + 8) {
+			throw new IOException("Truncated tablebase: " + file);
+		}
+	}
+
+	public static Tablebase open(Path file) throws IOException {
+		return new Tablebase(file);
+	}
+
+	public String getSignature() {
+		return signature;
+	}
+
+	public int getPieces() {
+		return pieces;
+	}
+
+	public int getBits() {
+		return bits;
+	}
+
+	public long size() {
+		return size;
+	}
+
+	public int value(int index) {							// Ver o comentário da classe; no máximo 8 bits, então cabe em um short.
+		long bit = (long) index * bits;
+		int word = data.getShort(HEADER_BYTES + (int) (bit >>> 3)) & 0xFFFF;
+		return (word >>> (int) (bit & 7)) & mask;
+	}
+
+	static void write(Path file, String signature, byte[] values) throws IOException {
+		int max = 0;
+		for (byte v : values) {
+			max = Math.max(max, v & 0xFF);
+		}
+		int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(max));
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + (int) (((long) values.length * bits + 7) / 8) + 8).order(ByteOrder.LITTLE_ENDIAN);
+		byte[] name = new byte[8];
+		byte[] ascii = signature.getBytes(StandardCharsets.US_ASCII);
+		System.arraycopy(ascii, 0, name, 0, ascii.length);
+		for (int i = ascii.length; i < name.length; i++) {
+			name[i] = ' ';
+		}
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(signature.length()).putInt(bits).put(name).putLong(values.length);
+		long accumulator = 0;
+		int filled = 0;
+		int p = HEADER_BYTES;
+		for (byte v : values) {
+			accumulator |= (long) (v & 0xFF) << filled;
+			filled += bits;
+			while (filled >= 8) {
+				buffer.put(p++, (byte) accumulator);
+				accumulator >>>= 8;
+				filled -= 8;
+			}
+		}
+		if (filled > 0) {
+			buffer.put(p, (byte) accumulator);
+		}
+		buffer.clear();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+}
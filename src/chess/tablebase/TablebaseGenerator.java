@@ -0,0 +1,422 @@
+package chess.tablebase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import chess.Attacks;
+import chess.Color;
+import chess.PieceType;
+
+public final class TablebaseGenerator {
+
+	// Gera tabelas de finais (vitória/empate/derrota e distância até o mate) por análise retrógrada.
+	// 1. Para cada posição legal, as threads geram os lances: os que saem da tabela (capturas e promoções) são
+	//    resolvidos consultando as tabelas filhas, geradas antes; os que ficam na tabela são só contados.
+	//    Mates (e vitórias/derrotas decididas só por lances que saem da tabela) vão para a fila do seu nível (plies).
+	// 2. Nível a nível (0, 1, 2, ...), as posições decididas geram os seus antecessores (lances desfeitos):
+	//    antecessor de uma derrota é vitória no nível seguinte; antecessor de uma vitória tem o contador de lances
+	//    decrementado e, se todos os lances levam a vitórias do adversário, é uma derrota.
+	//    Os antecessores de cada nível são calculados em paralelo e aplicados em ordem por uma única thread.
+	// O que nunca é decidido é empate. Roque e en passant não existem nas tabelas.
+
+	private static final int MAX_PLIES = 254;						// O valor gravado (1 + plies) cabe em um byte.
+	private static final int CANNOT_LOSE = 0x80;					// No contador: há um lance que empata ou vence, a posição não é derrota.
+	private static final int CHUNK = 1 << 14;
+	private static final PieceType[] PROMOTIONS = { PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT };
+	private static final PieceType[] NO_PROMOTION = { null };				// Captura sem promoção: a peça continua a mesma.
+
+	private final Material material;
+	private final Tablebases children;
+	private final ExecutorService pool;
+	private final int threads;
+	private final int n;
+	private final int size;
+	private final int whiteKing;
+	private final int blackKing;
+	private final byte[] values;
+	private final byte[] counts;
+	private final byte[] lossPlies;									// Maior distância de derrota entre os lances que saem da tabela.
+	private final IntList[] levels = new IntList[MAX_PLIES + 1];
+
+	private TablebaseGenerator(Material material, Tablebases children, ExecutorService pool, int threads) {
+		this.material = material;
+		this.children = children;
+		this.pool = pool;
+		this.threads = threads;
+		n = material.sides.length;
+		size = 2 << (6 * n);
+		whiteKing = 0;
+		blackKing = material.signature.indexOf('K', 1);
+		values = new byte[size];
+		counts = new byte[size];
+		lossPlies = new byte[size];
+		for (int i = 0; i < levels.length; i++) {
+			levels[i] = new IntList();
+		}
+	}
+
+	public static Path generate(Path directory, String signature, int threads) throws IOException {
+		Material material = Material.of(signature);				// Gera também as tabelas filhas que ainda não existem. Retorna o arquivo.
+		Path file = directory.resolve(material.signature + Tablebase.EXTENSION);
+		for (String child : material.children()) {
+			if (!Files.exists(directory.resolve(child + Tablebase.EXTENSION))) {
+				generate(directory, child, threads);
+			}
+		}
+		int workers = Math.max(1, threads);
+		ExecutorService pool = Executors.newFixedThreadPool(workers);
+		try {
+			TablebaseGenerator generator = new TablebaseGenerator(material, new Tablebases(directory), pool, workers);
+			generator.initialize();
+			generator.retrograde();
+			Files.createDirectories(directory);
+			Tablebase.write(file, material.signature, generator.values);
+		}
+		finally {
+			pool.shutdownNow();
+		}
+		return file;
+	}
+
+	private void initialize() throws IOException {
+		List<Callable<IntList[]>> tasks = new ArrayList<>();
+		int chunk = Math.max(CHUNK, size / (threads * 8));
+		for (int start = 0; start < size; start += chunk) {
+			int first = start;
+			int end = Math.min(size, start + chunk);
+			tasks.add(() -> {
+				IntList[] found = new IntList[MAX_PLIES + 1];
+				int[] squares = new int[n];
+				PieceType[] types = material.types.clone();
+				for (int index = first; index < end; index++) {
+					initialize(index, squares, types, found);
+				}
+				return found;
+			});
+		}
+		for (IntList[] found : invokeAll(tasks)) {
+			for (int level = 0; level <= MAX_PLIES; level++) {
+				if (found[level] != null) {
+					levels[level].addAll(found[level]);
+				}
+			}
+		}
+	}
+
+	private void initialize(int index, int[] squares, PieceType[] types, IntList[] found) {
+		int side = index >>> (6 * n);
+		long occupied = decode(index, squares);
+		if (occupied == -1 || attacked(squares[king(1 - side)], side, squares, occupied)) {
+			return;																// Posição ilegal: fica como empate e nunca é alcançada.
+		}
+		int inTable = 0;
+		int win = Integer.MAX_VALUE;
+		int loss = 0;
+		boolean cannotLose = false;
+		boolean hasMove = false;
+		long own = occupancy(side, squares);
+		for (int i = 0; i < n; i++) {
+			if (material.sides[i] != side) {
+				continue;
+			}
+			int from = squares[i];
+			boolean pawn = material.types[i] == PieceType.PAWN;
+			for (long targets = pawn ? pawnMoves(side, from, occupied, occupied & ~own) : attacks(material.types[i], side, from, occupied) & ~own; targets != 0; targets &= targets - 1) {
+				int to = Long.numberOfTrailingZeros(targets);
+				int captured = slotAt(squares, to);
+				squares[i] = to;
+				if (captured >= 0) {
+					squares[captured] = -1;
+				}
+				long after = (occupied & ~(1L << from)) | (1L << to);
+				if (!attacked(squares[king(side)], 1 - side, squares, after)) {
+					hasMove = true;
+					int row = to >>> 3;
+					boolean promotes = pawn && (row == 0 || row == 7);
+					if (!promotes && captured < 0) {
+						inTable++;
+					}
+					else {
+						for (PieceType promotion : promotes ? PROMOTIONS : NO_PROMOTION) {
+							types[i] = (promotion != null) ? promotion : material.types[i];
+							int child = children.probe(material.sides, types, squares, n, 1 - side);
+							if (child == Tablebases.UNKNOWN) {
+								throw new IllegalStateException("Missing tablebase for a capture or promotion from " + material.signature);
+							}
+							if (child == Tablebases.DRAW) {
+								cannotLose = true;
+							}
+							else if (Tablebases.isLoss(child)) {							// O adversário perde: vitória em (plies dele) + 1 = child plies.
+								win = Math.min(win, child);
+							}
+							else {
+								loss = Math.max(loss, child);
+							}
+						}
+						types[i] = material.types[i];
+					}
+				}
+				squares[i] = from;
+				if (captured >= 0) {
+					squares[captured] = to;
+				}
+			}
+		}
+		if (!hasMove) {
+			if (attacked(squares[king(side)], 1 - side, squares, occupied)) {
+				add(found, 0, index);												// Xeque-mate.
+			}
+			return;																	// Afogamento: empate.
+		}
+		if (win != Integer.MAX_VALUE) {
+			add(found, win, index);
+			cannotLose = true;
+		}
+		if (cannotLose) {
+			counts[index] = (byte) CANNOT_LOSE;
+		}
+		else if (inTable == 0) {
+			add(found, loss, index);												// Todos os lances saem da tabela e perdem.
+		}
+		else {
+			counts[index] = (byte) inTable;
+			lossPlies[index] = (byte) loss;
+		}
+	}
+
+	private void retrograde() throws IOException {
+		for (int level = 0; level <= MAX_PLIES; level++) {
+			IntList frontier = new IntList();
+			IntList pending = levels[level];
+			for (int i = 0; i < pending.size; i++) {
+				int index = pending.items[i];
+				if (values[index] == 0) {
+					values[index] = (byte) (level + 1);
+					frontier.add(index);
+				}
+			}
+			levels[level] = null;
+			if (frontier.size == 0) {
+				continue;
+			}
+			List<Callable<IntList>> tasks = new ArrayList<>();
+			int chunk = Math.max(256, frontier.size / (threads * 4) + 1);
+			for (int start = 0; start < frontier.size; start += chunk) {
+				int first = start;
+				int end = Math.min(frontier.size, start + chunk);
+				tasks.add(() -> {
+					IntList predecessors = new IntList();
+					int[] squares = new int[n];
+					for (int i = first; i < end; i++) {
+						predecessors(frontier.items[i], squares, predecessors);
+					}
+					return predecessors;
+				});
+			}
+			boolean wins = (level & 1) != 0;
+			for (IntList predecessors : invokeAll(tasks)) {
+				for (int i = 0; i < predecessors.size; i++) {
+					int index = predecessors.items[i];
+					if (values[index] != 0) {
+						continue;
+					}
+					if (!wins) {															// Antecessor de uma derrota: vitória.
+						schedule(level + 1, index);
+					}
+					else if ((counts[index] & CANNOT_LOSE) == 0 && --counts[index] == 0) {	// Todos os lances levam a vitórias do adversário.
+						schedule(Math.max(level + 1, lossPlies[index] & 0xFF), index);
+					}
+				}
+			}
+		}
+	}
+
+	private void predecessors(int index, int[] squares, IntList out) {		// Posições das quais um lance (sem captura nem promoção) leva a esta.
+		int side = index >>> (6 * n);
+		int mover = 1 - side;
+		long occupied = decode(index, squares);
+		for (int i = 0; i < n; i++) {
+			if (material.sides[i] != mover) {
+				continue;
+			}
+			int to = squares[i];
+			long sources = (material.types[i] == PieceType.PAWN) ? pawnOrigins(mover, to, occupied) : attacks(material.types[i], mover, to, occupied) & ~occupied;
+			for (; sources != 0; sources &= sources - 1) {
+				int from = Long.numberOfTrailingZeros(sources);
+				squares[i] = from;
+				long before = occupied ^ (1L << to) ^ (1L << from);
+				if (!attacked(squares[king(side)], mover, squares, before)) {
+					out.add(encode(mover, squares));
+				}
+			}
+			squares[i] = to;
+		}
+	}
+
+	private void schedule(int level, int index) {
+		if (level > MAX_PLIES) {
+			throw new IllegalStateException("Distance to mate over " + MAX_PLIES + " plies in " + material.signature);
+		}
+		levels[level].add(index);
+	}
+
+	private static void add(IntList[] found, int level, int index) {
+		if (level > MAX_PLIES) {
+			throw new IllegalStateException("Distance to mate over " + MAX_PLIES + " plies");
+		}
+		if (found[level] == null) {
+			found[level] = new IntList();
+		}
+		found[level].add(index);
+	}
+
+	private long decode(int index, int[] squares) {							// Casas das peças; -1 se a posição é impossível (casas repetidas, peão na 1ª/8ª).
+		long occupied = 0;
+		for (int i = 0; i < n; i++) {
+			int square = (index >>> (6 * i)) & 63;
+			squares[i] = square;
+			if ((occupied & (1L << square)) != 0) {
+				return -1;
+			}
+			occupied |= 1L << square;
+			if (material.types[i] == PieceType.PAWN && ((square >>> 3) == 0 || (square >>> 3) == 7)) {
+				return -1;
+			}
+		}
+		return occupied;
+	}
+
+	private int encode(int side, int[] squares) {
+		int index = side << (6 * n);
+		for (int i = 0; i < n; i++) {
+			index |= squares[i] << (6 * i);
+		}
+		return index;
+	}
+
+	private int king(int side) {
+		return (side == Material.WHITE) ? whiteKing : blackKing;
+	}
+
+	private long occupancy(int side, int[] squares) {
+		long occupied = 0;
+		for (int i = 0; i < n; i++) {
+			if (material.sides[i] == side && squares[i] >= 0) {
+				occupied |= 1L << squares[i];
+			}
+		}
+		return occupied;
+	}
+
+	private int slotAt(int[] squares, int square) {
+		for (int i = 0; i < n; i++) {
+			if (squares[i] == square) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private boolean attacked(int square, int bySide, int[] squares, long occupied) {
+		for (int i = 0; i < n; i++) {
+			if (material.sides[i] == bySide && squares[i] >= 0 && (attacks(material.types[i], bySide, squares[i], occupied) & (1L << square)) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static long attacks(PieceType type, int side, int square, long occupied) {
+		switch (type) {
+		case PAWN: return Attacks.pawn(color(side), square);
+		case KNIGHT: return Attacks.knight(square);
+		case BISHOP: return Attacks.bishop(square, occupied);
+		case ROOK: return Attacks.rook(square, occupied);
+		case QUEEN: return Attacks.queen(square, occupied);
+		default: return Attacks.king(square);
+		}
+	}
+
+	private static long pawnMoves(int side, int from, long occupied, long enemies) {	// Avanços (simples e duplo) e capturas do peão. Brancas sobem (casa - 8).
+		int direction = (side == Material.WHITE) ? -8 : 8;
+		int startRow = (side == Material.WHITE) ? 6 : 1;
+		long moves = Attacks.pawn(color(side), from) & enemies;
+		int one = from + direction;
+		if ((occupied & (1L << one)) == 0) {
+			moves |= 1L << one;
+			if ((from >>> 3) == startRow && (occupied & (1L << (one + direction))) == 0) {
+				moves |= 1L << (one + direction);
+			}
+		}
+		return moves;
+	}
+
+	private static long pawnOrigins(int side, int to, long occupied) {		// Casas de onde um avanço de peão chega em 'to'.
+		int back = (side == Material.WHITE) ? 8 : -8;
+		int row = to >>> 3;
+		long origins = 0;
+		int one = to + back;
+		if ((side == Material.WHITE) ? row <= 5 : row >= 2) {
+			if ((occupied & (1L << one)) == 0) {
+				origins |= 1L << one;
+				if (row == ((side == Material.WHITE) ? 4 : 3) && (occupied & (1L << (one + back))) == 0) {
+					origins |= 1L << (one + back);
+				}
+			}
+		}
+		return origins;
+	}
+
+	private static Color color(int side) {
+		return (side == Material.WHITE) ? Color.WHITE : Color.BLACK;
+	}
+
+	private <T> List<T> invokeAll(List<Callable<T>> tasks) throws IOException {
+		List<T> results = new ArrayList<>();
+		try {
+			for (Future<T> future : pool.invokeAll(tasks)) {
+				results.add(future.get());
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Tablebase generation interrupted", e);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+		return results;
+	}
+
+	private static class IntList {											// Lista de índices que cresce sem caixas de Integer.
+		int[] items = new int[16];
+		int size;
+
+		void add(int value) {
+			if (size == items.length) {
+				items = Arrays.copyOf(items, size * 2);
+			}
+			items[size++] = value;
+		}
+
+		void addAll(IntList other) {
+			if (size + other.size > items.length) {
+				items = Arrays.copyOf(items, Math.max(size + other.size, items.length * 2));
+			}
+			System.arraycopy(other.items, 0, items, size, other.size);
+			size += other.size;
+		}
+	}
+}
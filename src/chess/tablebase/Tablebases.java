@@ -0,0 +1,151 @@
+package chess.tablebase;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+
+import chess.ChessMatch;
+import chess.Color;
+import chess.PieceType;
+
+public class Tablebases {
+
+	// Conjunto de tabelas de finais de um diretório (arquivos <assinatura>.ctb), abertas sob demanda e
+	// consultadas a partir de uma partida. Pode ser usado por várias threads de busca ao mesmo tempo.
+	// Resultado de probe: UNKNOWN (posição fora das tabelas), DRAW, ou o valor da tabela (ver Tablebase):
+	// 1 + plies até o mate, do ponto de vista de quem joga; isWin/isLoss/distance interpretam o valor.
+
+	public static final int UNKNOWN = -1;
+	public static final int DRAW = 0;
+
+	private static final Entry MISSING = new Entry(null, false);
+
+	private final Path directory;
+	private final ConcurrentHashMap<Long, Entry> tables = new ConcurrentHashMap<>();	// Por chave de material (ver materialKey).
+
+	public Tablebases(Path directory) {
+		this.directory = directory;
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	public int getMaxPieces() {
+		return Material.MAX_PIECES;
+	}
+
+	public static boolean isWin(int result) {
+		return result > 0 && (result & 1) == 0;
+	}
+
+	public static boolean isLoss(int result) {
+		return result > 0 && (result & 1) == 1;
+	}
+
+	public static int distance(int result) {						// Plies até o mate (0 se o jogador da vez já levou mate).
+		return result - 1;
+	}
+
+	public int probe(ChessMatch match) {
+		if (match.getCastlingRights() != 0 || match.getEnPassantSquare() >= 0) {		// As tabelas não guardam roque nem en passant.
+			return UNKNOWN;
+		}
+		int count = 0;
+		for (Color color : Color.values()) {
+			for (PieceType type : PieceType.values()) {
+				count += Long.bitCount(match.bitboard(color, type));
+			}
+		}
+		if (count > Material.MAX_PIECES) {
+			return UNKNOWN;
+		}
+		int[] sides = new int[count];
+		PieceType[] types = new PieceType[count];
+		int[] squares = new int[count];
+		int n = 0;
+		for (Color color : Color.values()) {
+			for (PieceType type : PieceType.values()) {
+				for (long pieces = match.bitboard(color, type); pieces != 0; pieces &= pieces - 1) {
+					sides[n] = (color == Color.WHITE) ? Material.WHITE : Material.BLACK;
+					types[n] = type;
+					squares[n++] = Long.numberOfTrailingZeros(pieces);
+				}
+			}
+		}
+		return probe(sides, types, squares, n, (match.getCurrentPlayer() == Color.WHITE) ? Material.WHITE : Material.BLACK);
+	}
+
+	int probe(int[] sides, PieceType[] types, int[] squares, int n, int sideToMove) {	// Peças com casa < 0 são ignoradas (capturadas).
+		Entry entry = entry(sides, types, squares, n);
+		if (entry.table == null) {
+			return UNKNOWN;
+		}
+		Material material = entry.material;
+		int flip = entry.flipped ? 1 : 0;
+		int index = (sideToMove ^ flip) << (6 * material.sides.length);
+		long used = 0;
+		for (int slot = 0; slot < material.sides.length; slot++) {
+			for (int i = 0; i < n; i++) {
+				if (squares[i] >= 0 && (used & (1L << i)) == 0 && (sides[i] ^ flip) == material.sides[slot] && types[i] == material.types[slot]) {
+					used |= 1L << i;
+					index |= (entry.flipped ? squares[i] ^ 56 : squares[i]) << (6 * slot);
+					break;
+				}
+			}
+		}
+		return entry.table.value(index);
+	}
+
+	private Entry entry(int[] sides, PieceType[] types, int[] squares, int n) {
+		long key = 0;
+		for (int i = 0; i < n; i++) {
+			if (squares[i] >= 0) {
+				key += 1L << (3 * (sides[i] * 6 + types[i].ordinal()));		// Quantidade de cada peça, 3 bits por cor e tipo.
+			}
+		}
+		Entry entry = tables.get(key);
+		if (entry == null) {
+			entry = tables.computeIfAbsent(key, k -> open(sides, types, squares, n));
+		}
+		return entry;
+	}
+
+	private Entry open(int[] sides, PieceType[] types, int[] squares, int n) {
+		StringBuilder white = new StringBuilder();
+		StringBuilder black = new StringBuilder();
+		for (int i = 0; i < n; i++) {
+			if (squares[i] >= 0) {
+				((sides[i] == Material.WHITE) ? white : black).append(Material.letter(types[i]));
+			}
+		}
+		if (white.indexOf("K") < 0 || black.indexOf("K") < 0 || white.length() + black.length() > Material.MAX_PIECES) {
+			return MISSING;
+		}
+		String signature = Material.canonical(white.toString(), black.toString());
+		Path file = directory.resolve(signature + Tablebase.EXTENSION);
+		if (!Files.exists(file)) {
+			return MISSING;
+		}
+		try {
+			return new Entry(Tablebase.open(file), Material.isFlipped(white.toString(), black.toString()));
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static class Entry {
+		final Tablebase table;
+		final Material material;
+		final boolean flipped;								// A posição tem o material da tabela com as cores trocadas.
+
+		Entry(Tablebase table, boolean flipped) {
+			this.table = table;
+			this.material = (table != null) ? Material.of(table.getSignature()) : null;
+			this.flipped = flipped;
+		}
+	}
+}
@@ -5,4 +5,5 @@
  * 
  */
 module chessSystem {
-}
\ No newline at end of file
+	requires static jdk.incubator.vector;		// Opcional: só é usado (por NnueKernel) quando a JVM sobe com --add-modules jdk.incubator.vector.
+}
@@ -0,0 +1,100 @@
+package chess.book;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import chess.ChessMatch;
+import chess.Move;
+
+class PolyglotKeyTest {
+
+	// Posições e chaves publicadas na especificação do formato Polyglot: cobrem roque (perdido com Ke2/Kf7),
+	// en passant que conta (f7f5 com peão em e5, b4xc3) e que não conta (e2e4, d7d5), e o lado a jogar.
+	private static final String[][] SPEC_POSITIONS = {
+		{ "", "463b96181691fc9c" },
+		{ "e2e4", "823c9b50fd114196" },
+		{ "e2e4 d7d5", "0756b94461c50fb0" },
+		{ "e2e4 d7d5 e4e5", "662fafb965db29d4" },
+		{ "e2e4 d7d5 e4e5 f7f5", "22a48b5a8e47ff78" },
+		{ "e2e4 d7d5 e4e5 f7f5 e1e2", "652a607ca3f242c1" },
+		{ "e2e4 d7d5 e4e5 f7f5 e1e2 e8f7", "00fdd303c946bdd9" },
+		{ "a2a4 b7b5 h2h4 b5b4 c2c4", "3c8123ea7b067637" },
+		{ "a2a4 b7b5 h2h4 b5b4 c2c4 b4c3 a1a2", "5c3f9b829b279560" }
+	};
+
+	@Test
+	void standardTableMatchesPublishedKeys() throws Exception {
+		assumeTrue(PolyglotKey.class.getResource(PolyglotKey.RESOURCE) != null, "chess/book/random64.bin not bundled");
+		PolyglotKey key = PolyglotKey.standard();
+		for (String[] position : SPEC_POSITIONS) {
+			assertEquals(Long.parseUnsignedLong(position[1], 16), key.hash(play(position[0])), position[0]);
+		}
+	}
+
+	@Test
+	void keysPiecesCastlingEnPassantAndTurnLikeTheSpec() {		// Com qualquer tabela, hash() é o XOR das entradas que a especificação manda usar.
+		Random rnd = new Random(1);
+		long[] random = new long[PolyglotKey.RANDOM_COUNT];
+		for (int i = 0; i < random.length; i++) {
+			random[i] = rnd.nextLong();
+		}
+		PolyglotKey key = new PolyglotKey(random);
+		for (String[] position : SPEC_POSITIONS) {
+			ChessMatch match = play(position[0]);
+			assertEquals(reference(random, match.toFen()), key.hash(match), position[0]);
+		}
+	}
+
+	private static long reference(long[] random, String fen) {	// A regra do Polyglot aplicada direto ao FEN.
+		String[] fields = fen.split(" ");
+		char[][] board = new char[8][8];
+		long key = 0L;
+		String[] ranks = fields[0].split("/");
+		for (int row = 7; row >= 0; row--) {						// row = fileira do Polyglot (0 = linha 1).
+			int file = 0;
+			for (char c : ranks[7 - row].toCharArray()) {
+				if (Character.isDigit(c)) {
+					file += c - '0';
+					continue;
+				}
+				board[row][file] = c;
+				int kind = 2 * "pnbrqk".indexOf(Character.toLowerCase(c)) + (Character.isUpperCase(c) ? 1 : 0);
+				key ^= random[64 * kind + 8 * row + file];
+				file++;
+			}
+		}
+		String castling = "KQkq";
+		for (int i = 0; i < 4; i++) {
+			if (fields[2].indexOf(castling.charAt(i)) >= 0) {
+				key ^= random[768 + i];
+			}
+		}
+		boolean white = fields[1].equals("w");
+		if (!fields[3].equals("-")) {								// Conta só se um peão do lado a jogar está ao lado do peão que avançou duas casas.
+			int file = fields[3].charAt(0) - 'a';
+			int row = white ? 4 : 3;
+			char pawn = white ? 'P' : 'p';
+			if ((file > 0 && board[row][file - 1] == pawn) || (file < 7 && board[row][file + 1] == pawn)) {
+				key ^= random[772 + file];
+			}
+		}
+		if (white) {
+			key ^= random[780];
+		}
+		return key;
+	}
+
+	private static ChessMatch play(String moves) {
+		ChessMatch match = new ChessMatch();
+		for (String move : moves.split(" ")) {
+			if (!move.isEmpty()) {
+				match.makeMove(Move.parse(match, move));
+			}
+		}
+		return match;
+	}
+}
@@ -0,0 +1,46 @@
+package chess.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import chess.ChessMatch;
+import chess.pgn.PgnGame;
+
+class GameDatabaseTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void replayMarksCheckmate() throws IOException {
+		Path base = dir.resolve("games");
+		try (GameDatabaseWriter writer = new GameDatabaseWriter(base)) {
+			writer.append(PgnGame.parse("[White \"a\"]\n\n1. f3 e5 2. g4 Qh4# 0-1\n"));
+		}
+		GameDatabase db = GameDatabase.open(base);
+		ChessMatch mate = db.replay(0);
+		assertTrue(mate.getCheckMate());
+		assertEquals("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3", mate.toFen());
+		assertFalse(db.replay(0, 3).getCheckMate());
+	}
+
+	@Test
+	void truncatesNamesAtCharacterBoundary() throws IOException {	// "é" ocupa 2 bytes: o corte em 255 partiria o 128º caractere.
+		Path base = dir.resolve("names");
+		String name = "é".repeat(150);
+		try (GameDatabaseWriter writer = new GameDatabaseWriter(base)) {
+			writer.append(new GameHeader(name, "b", "", GameHeader.UNKNOWN, null, 0), new int[0], 0);
+		}
+		String stored = GameDatabase.open(base).header(0).getWhite();
+		assertTrue(name.startsWith(stored));
+		assertEquals(254, stored.getBytes(StandardCharsets.UTF_8).length);
+	}
+}
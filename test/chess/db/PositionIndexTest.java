@@ -0,0 +1,60 @@
+package chess.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import chess.ChessMatch;
+import chess.Move;
+import chess.pgn.PgnGame;
+
+class PositionIndexTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void transposedMoveOrdersShareTheKey() {					// Depois de 2.c4 / 2.d4 nenhum peão preto pode capturar en passant.
+		ChessMatch a = play("d2d4", "g8f6", "c2c4");
+		ChessMatch b = play("c2c4", "g8f6", "d2d4");
+		assertNotEquals(a.getPositionKey(), b.getPositionKey());
+		assertEquals(a.getCanonicalKey(), b.getCanonicalKey());
+	}
+
+	@Test
+	void capturableEnPassantKeepsTheKeysApart() {				// Com o peão em d4 a captura en passant em c3 existe: não é a mesma posição.
+		ChessMatch a = play("e2e4", "d7d5", "e4e5", "d5d4", "c2c4");
+		ChessMatch b = play("c2c4", "d7d5", "e2e4", "d5d4", "e4e5");
+		assertNotEquals(a.getCanonicalKey(), b.getCanonicalKey());
+	}
+
+	@Test
+	void indexFindsBothTranspositions() throws IOException {
+		Path base = dir.resolve("games");
+		try (GameDatabaseWriter writer = new GameDatabaseWriter(base)) {
+			writer.append(PgnGame.parse("[White \"a\"]\n\n1. d4 Nf6 2. c4 *\n"));
+			writer.append(PgnGame.parse("[White \"b\"]\n\n1. c4 Nf6 2. d4 *\n"));
+		}
+		Path output = dir.resolve("games.idx");
+		PositionIndexBuilder.build(GameDatabase.open(base), output, 2);
+		PositionIndex index = PositionIndex.open(output);
+		long[] hits = index.find(play("d2d4", "g8f6", "c2c4").getCanonicalKey(), 10);
+		assertEquals(2, hits.length);
+		assertEquals(0, PositionIndex.game(hits[0]));
+		assertEquals(1, PositionIndex.game(hits[1]));
+		assertEquals(3, PositionIndex.ply(hits[0]));
+	}
+
+	private static ChessMatch play(String... moves) {
+		ChessMatch match = new ChessMatch();
+		for (String move : moves) {
+			match.makeMove(Move.parse(match, move));
+		}
+		return match;
+	}
+}
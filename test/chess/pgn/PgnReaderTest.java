@@ -0,0 +1,58 @@
+package chess.pgn;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PgnReaderTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void splitsGamesAtTagLines() throws IOException {
+		Path file = write("[Event \"a\"]\n\n1. e4 e5 1-0\n\n[Event \"b\"]\n\n1. d4 d5 0-1\n");
+		try (PgnReader reader = new PgnReader(file)) {
+			assertTrue(reader.nextGame().contains("1. e4 e5"));
+			assertTrue(reader.nextGame().contains("1. d4 d5"));
+			assertNull(reader.nextGame());
+		}
+	}
+
+	@Test
+	void keepsWrappedClockCommentInTheSameGame() throws IOException {	// O [%clk ...] quebrado em linha dentro de { } não é uma tag; o { de um comentário ; não abre outro.
+		Path file = write("[Event \"a\"]\n\n1. e4 { abertura\n[%clk 0:03:00] } e5 2. Nf3 ; nota {\nNc6 1-0\n\n"
+				+ "[Event \"b\"]\n\n1. d4 d5 0-1\n");
+		try (PgnReader reader = new PgnReader(file)) {
+			String first = reader.nextGame();
+			assertTrue(first.contains("[%clk 0:03:00] } e5 2. Nf3"));
+			assertTrue(first.endsWith("Nc6 1-0\n\n"));
+			String second = reader.nextGame();
+			assertTrue(second.startsWith("[Event \"b\"]"));
+			assertNull(reader.nextGame());
+		}
+	}
+
+	@Test
+	void parsesGameWithWrappedComment() throws IOException {
+		Path file = write("[Event \"a\"]\n\n1. e4 { [%clk 0:03:00]\n[%clk 0:02:59] } e5 2. Nf3 Nc6 *\n");
+		try (PgnReader reader = new PgnReader(file)) {
+			PgnGame game = PgnGame.parse(reader.nextGame());
+			assertEquals(4, game.getMoves().size());
+		}
+	}
+
+	private Path write(String text) throws IOException {
+		Path file = dir.resolve("games.pgn");
+		Files.writeString(file, text, StandardCharsets.UTF_8);
+		return file;
+	}
+}